@@ -0,0 +1,75 @@
+package br.com.dti.msa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Agendadores separados por tipo de trabalho, para que a limpeza pesada do banco nunca atrase
+ * a coleta (antes tudo dividia a única thread do agendador padrão do Spring).
+ *
+ * <ul>
+ *   <li>collectorScheduler: só os gatilhos do ciclo de coleta (o ciclo roda no CollectionCoordinator);</li>
+ *   <li>maintenanceScheduler: limpeza/retenção (CleanupScheduler);</li>
+ *   <li>fastLaneScheduler: via rápida de reavaliação (FastRecheckLane);</li>
+ *   <li>taskScheduler: demais @Scheduled (ex: heartbeat do cluster).</li>
+ * </ul>
+ *
+ * Cada um exporta as métricas 'executor.*' do Micrometer com a tag name=&lt;nome&gt;:
+ * fila (executor.queued), threads ativas (executor.active) e duração das tarefas (executor).
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private final MeterRegistry meterRegistry;
+    private final List<ScheduledExecutorService> executors = new ArrayList<>();
+
+    public ExecutorConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public TaskScheduler collectorScheduler(@Value("${msa.executors.collector.pool-size:1}") int poolSize) {
+        return instrumentedScheduler("collector-scheduler", poolSize);
+    }
+
+    @Bean
+    public TaskScheduler maintenanceScheduler(@Value("${msa.executors.maintenance.pool-size:1}") int poolSize) {
+        return instrumentedScheduler("maintenance", poolSize);
+    }
+
+    @Bean
+    public TaskScheduler fastLaneScheduler(@Value("${msa.executors.fast-lane.pool-size:1}") int poolSize) {
+        return instrumentedScheduler("fast-lane", poolSize);
+    }
+
+    // O nome 'taskScheduler' faz deste o agendador padrão dos @Scheduled sem 'scheduler'
+    @Bean
+    public TaskScheduler taskScheduler(@Value("${msa.executors.auxiliary.pool-size:2}") int poolSize) {
+        return instrumentedScheduler("auxiliary", poolSize);
+    }
+
+    private TaskScheduler instrumentedScheduler(String name, int poolSize) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                Math.max(1, poolSize), new CustomizableThreadFactory("msa-" + name + "-"));
+        executor.setRemoveOnCancelPolicy(true);
+        executors.add(executor);
+        return new ConcurrentTaskScheduler(ExecutorServiceMetrics.monitor(meterRegistry, executor, name));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.forEach(ScheduledExecutorService::shutdown);
+    }
+}
@@ -1,19 +1,47 @@
 package br.com.dti.msa.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
 import java.time.Duration;
 
+/**
+ * Transporte HTTP único para todas as chamadas externas (Zabbix e Keycloak).
+ *
+ * Um só {@link HttpClient} do JDK mantém as conexões abertas (keep-alive) e as reaproveita
+ * entre as chamadas, evitando um handshake TCP/TLS a cada requisição ao Zabbix.
+ * O tamanho do pool e o tempo de keep-alive do JDK são propriedades da JVM, lidas uma única vez
+ * quando o HttpClient é carregado: ficam na linha de comando (-Djdk.httpclient.connectionPoolSize,
+ * -Djdk.httpclient.keepalive.timeout, ver Dockerfile), não no contexto do Spring.
+ */
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public HttpClient httpClient(
+            @Value("${msa.http.connect-timeout-seconds:10}") long connectTimeoutSeconds,
+            @Value("${msa.http.http2:false}") boolean http2) {
+        System.out.println("HttpClient compartilhado: pool " + System.getProperty("jdk.httpclient.connectionPoolSize", "0 (padrão)")
+                + ", keep-alive " + System.getProperty("jdk.httpclient.keepalive.timeout", "1200 (padrão)") + " s");
+        return HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+            .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, HttpClient httpClient,
+                                     @Value("${msa.http.read-timeout-seconds:80}") long readTimeoutSeconds) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(readTimeoutSeconds));
         return builder
-            .connectTimeout(Duration.ofSeconds(60))
-            .readTimeout(Duration.ofSeconds(80))
+            .requestFactory(() -> requestFactory)
             .build();
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package br.com.dti.msa.controller;
 
 import br.com.dti.msa.dto.KeycloakTokenResponseDTO;
 import br.com.dti.msa.dto.LoginRequestDTO;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.util.LinkedMultiValueMap;
@@ -14,6 +15,9 @@ import org.springframework.web.client.RestTemplate;
 
 @RestController
 public class AuthenticationController {
+    @Autowired
+    private RestTemplate restTemplate;
+
     @Value("${keycloak.token-uri}")
     private String keycloakTokenUri;
     
@@ -25,8 +29,6 @@ public class AuthenticationController {
 
     @PostMapping("/token")
     public ResponseEntity<?> getToken(@RequestBody LoginRequestDTO loginRequest) {
-        RestTemplate restTemplate = new RestTemplate();
-        
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
@@ -106,5 +106,6 @@ public class HostDashboardDTO {
         private String timestamp;
         private String severity;
         private String name;
+        private boolean resolved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package br.com.dti.msa.exception;
+
+/**
+ * Falha do Zabbix antes de qualquer byte do 'result' ser lido (conexão recusada/derrubada,
+ * prazo dos cabeçalhos, HTTP 5xx/429). Indica sobrecarga ou indisponibilidade, e a chamada
+ * pode ser repetida sem risco de duplicar o que o leitor já recebeu.
+ */
+public class ZabbixTransientException extends ZabbixApiException {
+
+    public ZabbixTransientException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
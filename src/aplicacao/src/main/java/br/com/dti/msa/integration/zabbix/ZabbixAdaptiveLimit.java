@@ -0,0 +1,103 @@
+package br.com.dti.msa.integration.zabbix;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limite adaptativo de chamadas simultâneas ao Zabbix (AIMD guiado por latência e erros).
+ *
+ * Cada tipo de chamada tem sua latência de referência: a menor observada na janela atual ou
+ * na anterior ('baseline-window-seconds'), que acompanha o Zabbix quando ele fica mais lento
+ * de forma permanente. O gradiente é latência / referência, suavizado entre todas as chamadas:
+ * - Gradiente até 'latency-tolerance' e o limite realmente em uso (pelo menos metade ocupada):
+ *   aumento aditivo, +1 a cada 'limite' respostas.
+ * - Gradiente acima da tolerância, ou falha transitória/prazo: redução multiplicativa
+ *   ('backoff-ratio'), no máximo uma vez a cada 'limite' respostas, para uma rajada de
+ *   respostas lentas da mesma leva não derrubar o limite várias vezes seguidas.
+ *
+ * Não é thread-safe por conta própria: o ZabbixBulkhead chama tudo sob o seu lock.
+ */
+final class ZabbixAdaptiveLimit {
+
+    private static final double SMOOTHING = 0.2;
+
+    private static final class Baseline {
+        long windowStart;
+        long currentMin = Long.MAX_VALUE;
+        long previousMin = Long.MAX_VALUE;
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final long baselineWindowNanos;
+
+    private final Map<String, Baseline> baselines = new HashMap<>();
+    private double limit;
+    private double smoothedRttMillis;
+    private double smoothedGradient = 1.0;
+    private int samplesSinceDecrease;
+
+    ZabbixAdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double latencyTolerance,
+                        double backoffRatio, long baselineWindowNanos) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.minLimit = Math.max(1, Math.min(minLimit, this.maxLimit));
+        this.limit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.baselineWindowNanos = baselineWindowNanos;
+    }
+
+    /**
+     * Resposta recebida (inclusive erro da API, que também mede o tempo do Zabbix).
+     * 'inFlight' é o número de chamadas em andamento quando esta começou.
+     */
+    void onSample(String kind, long rttNanos, int inFlight, long now) {
+        samplesSinceDecrease++;
+        double rttMillis = rttNanos / 1_000_000.0;
+        smoothedRttMillis = smoothedRttMillis == 0 ? rttMillis : smoothedRttMillis + SMOOTHING * (rttMillis - smoothedRttMillis);
+
+        Baseline baseline = baselines.computeIfAbsent(kind, k -> new Baseline());
+        if (now - baseline.windowStart > baselineWindowNanos) {
+            baseline.previousMin = baseline.currentMin;
+            baseline.currentMin = Long.MAX_VALUE;
+            baseline.windowStart = now;
+        }
+        baseline.currentMin = Math.min(baseline.currentMin, Math.max(1, rttNanos));
+        long reference = Math.min(baseline.currentMin, baseline.previousMin);
+        smoothedGradient += SMOOTHING * ((double) rttNanos / reference - smoothedGradient);
+
+        if (smoothedGradient > latencyTolerance) {
+            decrease();
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    /**
+     * Falha transitória ou prazo esgotado: sinal de sobrecarga.
+     */
+    void onDrop() {
+        samplesSinceDecrease++;
+        decrease();
+    }
+
+    private void decrease() {
+        if (samplesSinceDecrease < limit) return;
+        limit = Math.max(minLimit, limit * backoffRatio);
+        samplesSinceDecrease = 0;
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    double smoothedRttMillis() {
+        return smoothedRttMillis;
+    }
+
+    double smoothedGradient() {
+        return smoothedGradient;
+    }
+}
@@ -0,0 +1,209 @@
+package br.com.dti.msa.integration.zabbix;
+
+import br.com.dti.msa.exception.ZabbixApiException;
+import br.com.dti.msa.exception.ZabbixTransientException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Anteparo (bulkhead) das chamadas à API do Zabbix: limita as chamadas em andamento ao mesmo
+ * tempo, somando coletor, via rápida, eventos e validações de cadastro.
+ *
+ * O limite é adaptativo ({@link ZabbixAdaptiveLimit}): sobe devagar enquanto a latência fica
+ * perto da referência de cada tipo de chamada e cai quando ela dispara ou o Zabbix falha, entre
+ * 'zabbix.api.limit.min' e 'zabbix.api.bulkhead.max-concurrent'. Com 'zabbix.api.limit.enabled'
+ * desligado, o limite é fixo em max-concurrent.
+ *
+ * Não bloqueia quem chama: uma chamada além do limite entra em uma fila de até 'max-queued'
+ * e só é enviada quando houver vaga. Com a fila cheia, a chamada falha na hora.
+ */
+@Component
+public class ZabbixBulkhead {
+
+    /**
+     * Chamada recusada pelo anteparo: não chegou ao Zabbix, então não conta no circuito.
+     */
+    public static class RejectedException extends ZabbixApiException {
+        RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Chamada na fila. start() devolve false se ela já foi cancelada enquanto esperava.
+     */
+    @FunctionalInterface
+    private interface Pending {
+        boolean start();
+    }
+
+    private final int maxQueued;
+    private final ZabbixAdaptiveLimit limit;
+    private final Deque<Pending> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    private final Counter rejected;
+
+    public ZabbixBulkhead(MeterRegistry meterRegistry,
+                          @Value("${zabbix.api.bulkhead.max-concurrent:32}") int maxConcurrent,
+                          @Value("${zabbix.api.bulkhead.max-queued:1000}") int maxQueued,
+                          @Value("${zabbix.api.limit.enabled:true}") boolean adaptive,
+                          @Value("${zabbix.api.limit.initial:8}") int initialLimit,
+                          @Value("${zabbix.api.limit.min:2}") int minLimit,
+                          @Value("${zabbix.api.limit.latency-tolerance:2.0}") double latencyTolerance,
+                          @Value("${zabbix.api.limit.backoff-ratio:0.9}") double backoffRatio,
+                          @Value("${zabbix.api.limit.baseline-window-seconds:300}") long baselineWindowSeconds) {
+        this.maxQueued = Math.max(0, maxQueued);
+        this.limit = adaptive
+                ? new ZabbixAdaptiveLimit(initialLimit, minLimit, maxConcurrent, latencyTolerance, backoffRatio,
+                        TimeUnit.SECONDS.toNanos(baselineWindowSeconds))
+                : new ZabbixAdaptiveLimit(maxConcurrent, maxConcurrent, maxConcurrent, Double.MAX_VALUE, 1.0, Long.MAX_VALUE);
+        this.rejected = Counter.builder("msa.zabbix.bulkhead.rejected")
+                .description("Chamadas ao Zabbix recusadas porque o limite e a fila do anteparo estavam cheios")
+                .register(meterRegistry);
+        Gauge.builder("msa.zabbix.bulkhead.in-flight", this, ZabbixBulkhead::inFlight)
+                .description("Chamadas ao Zabbix em andamento")
+                .register(meterRegistry);
+        Gauge.builder("msa.zabbix.bulkhead.queued", this, ZabbixBulkhead::queued)
+                .description("Chamadas ao Zabbix esperando vaga no anteparo")
+                .register(meterRegistry);
+        Gauge.builder("msa.zabbix.limit.current", this, ZabbixBulkhead::currentLimit)
+                .description("Limite atual de chamadas simultâneas ao Zabbix (adaptativo)")
+                .register(meterRegistry);
+        Gauge.builder("msa.zabbix.limit.rtt.smoothed", this, bulkhead -> bulkhead.rttEstimate(false))
+                .description("Latência média suavizada das chamadas ao Zabbix (ms)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("msa.zabbix.limit.rtt.gradient", this, bulkhead -> bulkhead.rttEstimate(true))
+                .description("Latência atual / latência de referência, suavizada (1 = sem fila no Zabbix)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Envia a chamada se houver vaga, ou a coloca na fila. 'kind' agrupa chamadas de custo parecido
+     * para a latência de referência. Cancelar o resultado cancela a chamada (ou a tira da fila).
+     */
+    public <T> CompletableFuture<T> submit(String kind, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Pending pending = () -> {
+            if (result.isDone()) return false;
+            int inFlightAtStart = inFlight();
+            long start = System.nanoTime();
+            CompletableFuture<T> running;
+            try {
+                running = call.get();
+            } catch (Throwable e) {
+                running = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<T> started = running;
+            started.whenComplete((value, error) -> {
+                release(kind, error, System.nanoTime() - start, inFlightAtStart);
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+            result.whenComplete((value, error) -> {
+                if (error != null) started.cancel(true);
+            });
+            return true;
+        };
+
+        synchronized (this) {
+            if (waiting.size() >= maxQueued && inFlight >= limit.limit()) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(new RejectedException(
+                        "Limite de " + limit.limit() + " chamadas simultâneas ao Zabbix atingido (fila cheia)."));
+            }
+            waiting.add(pending);
+        }
+        drain();
+        return result;
+    }
+
+    /**
+     * Vaga extra para a cópia (hedge) de uma chamada que já está em andamento: só é concedida se
+     * houver folga agora (abaixo do limite e ninguém na fila), sem esperar. A cópia conta como
+     * chamada em andamento para o limite; quem recebeu true devolve a vaga com {@link #releaseExtra()}.
+     */
+    public synchronized boolean tryAcquireExtra() {
+        if (inFlight >= limit.limit() || !waiting.isEmpty()) return false;
+        inFlight++;
+        return true;
+    }
+
+    public void releaseExtra() {
+        synchronized (this) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    /**
+     * Devolve a vaga, alimenta o limite com o resultado da chamada e libera a fila.
+     */
+    private void release(String kind, Throwable error, long rttNanos, int inFlightAtStart) {
+        synchronized (this) {
+            inFlight--;
+            Throwable cause = error == null ? null : ZabbixCalls.unwrap(error);
+            if (cause instanceof CancellationException) {
+                // Cancelada por quem chamou: não diz nada sobre o Zabbix
+            } else if (cause == null || (cause instanceof ZabbixApiException && !(cause instanceof ZabbixTransientException))) {
+                // O Zabbix respondeu (com 'result' ou 'error'): a latência vale como amostra
+                limit.onSample(kind, rttNanos, inFlightAtStart, System.nanoTime());
+            } else {
+                // Falha transitória, prazo esgotado ou leitura interrompida no meio: sobrecarga
+                limit.onDrop();
+            }
+            // As mudanças do limite aparecem em msa.zabbix.limit.current (e a causa nos gauges de rtt)
+        }
+        drain();
+    }
+
+    /**
+     * Inicia as chamadas da fila enquanto houver vaga (pulando as canceladas).
+     */
+    private void drain() {
+        while (true) {
+            Pending next;
+            synchronized (this) {
+                if (inFlight >= limit.limit()) return;
+                next = waiting.poll();
+                if (next == null) return;
+                inFlight++;
+            }
+            if (!next.start()) {
+                synchronized (this) {
+                    inFlight--;
+                }
+            }
+        }
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queued() {
+        return waiting.size();
+    }
+
+    public synchronized int currentLimit() {
+        return limit.limit();
+    }
+
+    private synchronized double rttEstimate(boolean gradient) {
+        return gradient ? limit.smoothedGradient() : limit.smoothedRttMillis();
+    }
+}
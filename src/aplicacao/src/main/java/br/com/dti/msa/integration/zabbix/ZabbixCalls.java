@@ -0,0 +1,159 @@
+package br.com.dti.msa.integration.zabbix;
+
+import br.com.dti.msa.exception.ZabbixApiException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Composição das chamadas assíncronas do ZabbixClient.
+ *
+ * Todas as funções mantêm o cancelamento ligado à origem: cancelar (ou deixar expirar) o
+ * resultado combinado cancela as chamadas que ainda estão em andamento, o que aborta a
+ * troca HTTP em vez de deixá-la terminar à toa.
+ */
+public final class ZabbixCalls {
+
+    private ZabbixCalls() {
+    }
+
+    /**
+     * Fan-in: espera todas as chamadas e devolve os resultados na mesma ordem.
+     * A primeira falha encerra o resultado na hora e cancela as demais.
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> calls) {
+        CompletableFuture<List<T>> all = CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                .thenApply(done -> calls.stream().map(CompletableFuture::join).toList());
+        // O allOf do JDK só falha depois que TODAS terminam; aqui a primeira falha já basta
+        calls.forEach(call -> call.whenComplete((value, error) -> {
+            if (error != null) all.completeExceptionally(unwrap(error));
+        }));
+        return cancelling(all, calls);
+    }
+
+    /**
+     * Fan-in indexado: mesmo comportamento do {@link #allOf(List)}, preservando as chaves
+     * (e a ordem de iteração) do mapa informado.
+     */
+    public static <K, V> CompletableFuture<Map<K, V>> allOf(Map<K, CompletableFuture<V>> calls) {
+        List<K> keys = List.copyOf(calls.keySet());
+        return map(allOf(keys.stream().map(calls::get).toList()), values -> {
+            Map<K, V> byKey = new LinkedHashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                byKey.put(keys.get(i), values.get(i));
+            }
+            return byKey;
+        });
+    }
+
+    /**
+     * Transforma o resultado de uma chamada (thenApply) sem perder o cancelamento da origem.
+     */
+    public static <T, R> CompletableFuture<R> map(CompletableFuture<T> call, Function<? super T, ? extends R> mapper) {
+        return cancelling(call.thenApply(mapper), List.of(call));
+    }
+
+    /**
+     * Encadeia uma segunda chamada que depende do resultado da primeira (thenCompose).
+     * Cancelar o resultado cancela a etapa que estiver em andamento.
+     */
+    public static <T, R> CompletableFuture<R> thenCall(CompletableFuture<T> call, Function<? super T, CompletableFuture<R>> next) {
+        AtomicReference<CompletableFuture<R>> second = new AtomicReference<>();
+        CompletableFuture<R> result = call.thenCompose(value -> {
+            CompletableFuture<R> nextCall = next.apply(value);
+            second.set(nextCall);
+            return nextCall;
+        });
+        result.whenComplete((value, error) -> {
+            if (error == null) return;
+            call.cancel(true);
+            CompletableFuture<R> nextCall = second.get();
+            if (nextCall != null) nextCall.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Prazo próprio para uma chamada, menor que o padrão do cliente (zabbix.api.timeout-seconds).
+     * Ao expirar, o resultado falha com TimeoutException e a chamada original é cancelada.
+     */
+    public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> call, Duration timeout) {
+        CompletableFuture<T> bounded = call.copy().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        return cancelling(bounded, List.of(call));
+    }
+
+    /**
+     * Troca a falha de uma chamada por um valor padrão (ex: mapa vazio em um bloco que falhou),
+     * sem perder o cancelamento da chamada original.
+     */
+    public static <T> CompletableFuture<T> recover(CompletableFuture<T> call, Function<Throwable, T> fallback) {
+        CompletableFuture<T> recovered = call.exceptionally(error -> fallback.apply(unwrap(error)));
+        return cancelling(recovered, List.of(call));
+    }
+
+    /**
+     * Espera o resultado bloqueando a thread atual (base dos métodos síncronos do cliente).
+     * A espera é interrompível: uma interrupção (ex: o prazo do coletor) cancela a chamada,
+     * mantém a flag de interrupção e vira ZabbixApiException, como uma falha de rede.
+     */
+    public static <T> T await(CompletableFuture<T> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ZabbixApiException("Chamada ao Zabbix interrompida.", e);
+        } catch (CancellationException e) {
+            throw new ZabbixApiException("Chamada ao Zabbix cancelada.", e);
+        } catch (ExecutionException e) {
+            throw asApiException(e.getCause());
+        }
+    }
+
+    /**
+     * Normaliza a falha de uma chamada: ZabbixApiException passa direto, prazo esgotado e
+     * erros de transporte viram ZabbixApiException com a causa original.
+     */
+    public static ZabbixApiException asApiException(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof ZabbixApiException apiException) {
+            return apiException;
+        }
+        if (cause instanceof TimeoutException) {
+            return new ZabbixApiException("Zabbix não respondeu no prazo.", cause);
+        }
+        return new ZabbixApiException("Falha ao conectar à API do Zabbix: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Tira as camadas CompletionException/ExecutionException e devolve a falha original.
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Se o resultado terminar com falha (inclusive cancelamento ou prazo), cancela as origens.
+     * Origens já concluídas ignoram o cancel.
+     */
+    private static <T> CompletableFuture<T> cancelling(CompletableFuture<T> result, Collection<? extends CompletableFuture<?>> sources) {
+        result.whenComplete((value, error) -> {
+            if (error != null) sources.forEach(source -> source.cancel(true));
+        });
+        return result;
+    }
+}
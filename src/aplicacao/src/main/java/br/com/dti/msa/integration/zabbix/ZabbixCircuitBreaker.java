@@ -0,0 +1,200 @@
+package br.com.dti.msa.integration.zabbix;
+
+import br.com.dti.msa.model.ZabbixConnectionStatus;
+import br.com.dti.msa.repository.ZabbixConnectionStatusRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disjuntor (circuit breaker) das chamadas à API do Zabbix.
+ *
+ * FECHADO: as chamadas passam e o resultado das últimas 'window-size' entra na janela; com pelo
+ * menos 'minimum-calls' registradas e 'failure-rate-percent' de falhas (rede, prazo, HTTP 5xx),
+ * o circuito ABRE. ABERTO: nenhuma chamada sai durante 'open-seconds' (falha na hora, sem esperar
+ * o timeout). Depois disso fica MEIO-ABERTO: até 'half-open-probes' chamadas de sondagem passam;
+ * todas com sucesso fecham o circuito, uma falha o abre de novo.
+ *
+ * Erros da própria API (campo 'error' do JSON-RPC) contam como sucesso: o Zabbix respondeu.
+ * Cada transição é gravada em 'zabbix_connection_status' (FECHADO = SUCCESS, demais = ERROR).
+ */
+@Component
+public class ZabbixCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Autowired private ZabbixConnectionStatusRepository statusRepository;
+
+    private final boolean enabled;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    // Janela circular com o resultado das últimas chamadas (true = falha)
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    // A gravação da transição não pode rodar na thread que completou a chamada (HttpClient/timeout)
+    private final ExecutorService statusWriter = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("msa-zabbix-breaker").factory());
+
+    private final Counter rejected;
+    private final MeterRegistry meterRegistry;
+
+    public ZabbixCircuitBreaker(MeterRegistry meterRegistry,
+                                @Value("${zabbix.api.breaker.enabled:true}") boolean enabled,
+                                @Value("${zabbix.api.breaker.window-size:20}") int windowSize,
+                                @Value("${zabbix.api.breaker.minimum-calls:10}") int minimumCalls,
+                                @Value("${zabbix.api.breaker.failure-rate-percent:50}") int failureRatePercent,
+                                @Value("${zabbix.api.breaker.open-seconds:30}") long openSeconds,
+                                @Value("${zabbix.api.breaker.half-open-probes:3}") int halfOpenProbes) {
+        this.enabled = enabled;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRatePercent = failureRatePercent;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("msa.zabbix.breaker.rejected")
+                .description("Chamadas ao Zabbix recusadas na hora porque o circuito estava aberto")
+                .register(meterRegistry);
+        Gauge.builder("msa.zabbix.breaker.state", this, breaker -> breaker.state().ordinal())
+                .description("Estado do circuito do Zabbix (0 = fechado, 1 = aberto, 2 = meio-aberto)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pede passagem para uma chamada. Falso = circuito aberto (ou sondagens esgotadas): não envie.
+     * Toda passagem concedida deve terminar em {@link #onSuccess}, {@link #onFailure} ou {@link #onIgnored}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (!enabled) return true;
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                rejected.increment();
+                return false;
+            }
+            transition(State.HALF_OPEN, "Tempo de circuito aberto esgotado; enviando chamadas de sondagem.");
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probeSuccesses >= halfOpenProbes) {
+                rejected.increment();
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * Sem efeito colateral: indica se uma chamada agora seria enviada. O coletor usa para pular
+     * a fase de rede inteira enquanto o circuito estiver aberto.
+     */
+    public synchronized boolean allowsCalls() {
+        return !enabled || state != State.OPEN || System.nanoTime() - openedAt >= openNanos;
+    }
+
+    public synchronized void onSuccess() {
+        if (!enabled) return;
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> {
+                probesInFlight = Math.max(0, probesInFlight - 1);
+                if (++probeSuccesses >= halfOpenProbes) {
+                    transition(State.CLOSED, "Zabbix voltou a responder (" + probeSuccesses + " sondagens com sucesso).");
+                }
+            }
+            case OPEN -> { } // Resposta atrasada de uma chamada anterior à abertura
+        }
+    }
+
+    public synchronized void onFailure(Throwable error) {
+        if (!enabled) return;
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (windowCount >= minimumCalls && windowFailures * 100 >= failureRatePercent * windowCount) {
+                    transition(State.OPEN, windowFailures + " falhas nas últimas " + windowCount + " chamadas. Última: " + error.getMessage());
+                }
+            }
+            case HALF_OPEN -> transition(State.OPEN, "Falha na sondagem: " + error.getMessage());
+            case OPEN -> { }
+        }
+    }
+
+    /**
+     * A chamada não chegou a um resultado (cancelada pelo chamador): não conta na janela.
+     */
+    public synchronized void onIgnored() {
+        if (enabled && state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) windowFailures--;
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failure;
+        if (failure) windowFailures++;
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void transition(State to, String reason) {
+        State from = state;
+        state = to;
+        windowNext = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        if (to == State.OPEN) openedAt = System.nanoTime();
+
+        String details = "Circuito do Zabbix " + from + " -> " + to + ": " + reason;
+        if (to == State.CLOSED) {
+            System.out.println("✅ " + details);
+        } else {
+            System.err.println("⚠️ " + details);
+        }
+        meterRegistry.counter("msa.zabbix.breaker.transitions", "to", to.name()).increment();
+        saveStatus(to == State.CLOSED ? ZabbixConnectionStatus.Status.SUCCESS : ZabbixConnectionStatus.Status.ERROR, details);
+    }
+
+    private void saveStatus(ZabbixConnectionStatus.Status status, String details) {
+        if (statusRepository == null) return;
+        LocalDateTime timestamp = LocalDateTime.now();
+        statusWriter.execute(() -> {
+            try {
+                ZabbixConnectionStatus statusRecord = new ZabbixConnectionStatus();
+                statusRecord.setTimestamp(timestamp);
+                statusRecord.setStatus(status);
+                statusRecord.setDetails(details);
+                statusRepository.save(statusRecord);
+            } catch (Exception e) {
+                System.err.println("Falha ao gravar a transição do circuito do Zabbix: " + e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package br.com.dti.msa.integration.zabbix;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requisições "hedged" para as leituras do Zabbix: se a resposta de uma chamada não chegar
+ * até o percentil 'percentile' (p95) do tempo de resposta daquele tipo de chamada, o
+ * ZabbixClient envia uma cópia e fica com a primeira resposta; a outra é cancelada.
+ *
+ * O tempo medido é até os cabeçalhos da resposta (o que o frontend PHP e o banco do Zabbix
+ * seguram); a leitura do corpo vem depois e não entra na disputa. As cópias saem de um
+ * orçamento: cada chamada elegível rende 'max-ratio' de cópia (ex: 0.05 = no máximo 5% a mais
+ * de chamadas), acumulando no máximo 'burst' cópias, para uma lentidão geral do Zabbix não
+ * virar o dobro de carga.
+ *
+ * A cópia ocupa uma vaga própria do anteparo e só sai se houver folga (com o Zabbix lento, o
+ * limite adaptativo já está cheio e a cópia não sai) e com o circuito fechado.
+ *
+ * O tempo de resposta é exportado em msa.zabbix.response.time (com p95/p99 por tipo de
+ * chamada) mesmo com o modo desligado, para comparar antes e depois.
+ */
+@Component
+public class ZabbixHedging {
+
+    private final boolean enabled;
+    private final double percentile;
+    private final double maxRatio;
+    private final double burst;
+    private final long minSamples;
+    private final long minDelayMillis;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> responseTimes = new ConcurrentHashMap<>();
+    private final Counter eligible;
+    private final Counter sent;
+    private final Counter won;
+    private final Counter skipped;
+
+    // Cópias disponíveis no orçamento
+    private double tokens;
+
+    public ZabbixHedging(MeterRegistry meterRegistry,
+                         @Value("${zabbix.api.hedge.enabled:false}") boolean enabled,
+                         @Value("${zabbix.api.hedge.percentile:0.95}") double percentile,
+                         @Value("${zabbix.api.hedge.max-ratio:0.05}") double maxRatio,
+                         @Value("${zabbix.api.hedge.burst:5}") double burst,
+                         @Value("${zabbix.api.hedge.min-samples:50}") long minSamples,
+                         @Value("${zabbix.api.hedge.min-delay-ms:20}") long minDelayMillis) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.maxRatio = maxRatio;
+        this.burst = Math.max(1, burst);
+        this.minSamples = minSamples;
+        this.minDelayMillis = minDelayMillis;
+        this.meterRegistry = meterRegistry;
+        this.eligible = Counter.builder("msa.zabbix.hedge.eligible")
+                .description("Leituras do Zabbix que poderiam receber uma cópia (modo hedge)")
+                .register(meterRegistry);
+        this.sent = Counter.builder("msa.zabbix.hedge.sent")
+                .description("Cópias enviadas porque a resposta passou do percentil configurado")
+                .register(meterRegistry);
+        this.won = Counter.builder("msa.zabbix.hedge.won")
+                .description("Cópias cuja resposta chegou antes da chamada original")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("msa.zabbix.hedge.skipped")
+                .description("Cópias não enviadas por falta de vaga no anteparo ou com o circuito fora do normal")
+                .register(meterRegistry);
+        Gauge.builder("msa.zabbix.hedge.rate", this, ZabbixHedging::hedgeRate)
+                .description("Cópias enviadas / leituras elegíveis (carga extra do modo hedge)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Atraso até a cópia de uma leitura do tipo 'kind', ou null se ela não deve receber cópia
+     * (modo desligado ou ainda sem amostras suficientes para o percentil).
+     * Cada chamada elegível rende sua fração do orçamento aqui.
+     */
+    public Duration delayFor(String kind) {
+        if (!enabled) return null;
+        eligible.increment();
+        synchronized (this) {
+            tokens = Math.min(burst, tokens + maxRatio);
+        }
+        Timer timer = responseTimes.get(kind);
+        if (timer == null || timer.count() < minSamples) return null;
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return Duration.ofMillis(Math.max(minDelayMillis, (long) value.value(TimeUnit.MILLISECONDS)));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pede uma cópia ao orçamento. Falso = limite de carga extra atingido: segue só com a original.
+     */
+    public synchronized boolean tryHedge() {
+        if (tokens < 1) return false;
+        tokens -= 1;
+        sent.increment();
+        return true;
+    }
+
+    public void onHedgeWon() {
+        won.increment();
+    }
+
+    /**
+     * A cópia venceu o atraso, mas não saiu: sem folga no anteparo ou circuito não fechado.
+     */
+    public void onSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Tempo até os cabeçalhos da resposta vencedora, por tipo de chamada.
+     */
+    public void record(String kind, long nanos) {
+        responseTimes.computeIfAbsent(kind, k -> Timer.builder("msa.zabbix.response.time")
+                .description("Tempo até os cabeçalhos da resposta do Zabbix, por tipo de chamada")
+                .tag("kind", k)
+                .publishPercentiles(percentile, 0.99)
+                .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private double hedgeRate() {
+        double calls = eligible.count();
+        return calls == 0 ? 0 : sent.count() / calls;
+    }
+}
@@ -1,28 +1,55 @@
 package br.com.dti.msa.integration.zabbix.dto;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import br.com.dti.msa.exception.ZabbixApiException;
+import br.com.dti.msa.exception.ZabbixTransientException;
+import br.com.dti.msa.integration.zabbix.ZabbixBulkhead;
+import br.com.dti.msa.integration.zabbix.ZabbixCalls;
+import br.com.dti.msa.integration.zabbix.ZabbixCircuitBreaker;
+import br.com.dti.msa.integration.zabbix.ZabbixHedging;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Data;
 
-import org.springframework.web.client.RestClientException;
-
-import java.util.Arrays;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Component
 public class ZabbixClient {
@@ -43,14 +70,398 @@ public class ZabbixClient {
     @Value("${zabbix.api.token}")
     private String authToken;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${zabbix.api.item-chunk-size:500}")
+    private int itemChunkSize;
+
+    // Prazo de cada chamada (do envio ao fim da leitura da resposta)
+    @Value("${zabbix.api.timeout-seconds:30}")
+    private long callTimeoutSeconds;
+
+    // Transporte compartilhado (RestTemplateConfig): conexões reaproveitadas entre as chamadas.
+    // As chamadas JSON-RPC usam o HttpClient direto, em modo assíncrono
+    @Autowired private HttpClient httpClient;
+
+    // Circuito e anteparo compartilhados por todas as chamadas JSON-RPC
+    @Autowired private ZabbixCircuitBreaker breaker;
+    @Autowired private ZabbixBulkhead bulkhead;
+    @Autowired private ZabbixHedging hedging;
+    @Autowired private MeterRegistry meterRegistry;
+
+    // Repetição de leituras com falha transitória: espera exponencial com jitter
+    @Value("${zabbix.api.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${zabbix.api.retry.initial-backoff-ms:200}")
+    private long retryInitialBackoffMillis;
+
+    @Value("${zabbix.api.retry.max-backoff-ms:2000}")
+    private long retryMaxBackoffMillis;
+
+    // Leituras idênticas em andamento compartilham uma única troca HTTP (single-flight)
+    @Value("${zabbix.api.coalesce.enabled:true}")
+    private boolean coalesceEnabled;
+
+    // Por quanto tempo o resultado de uma leitura que tolera dado levemente velho (validações,
+    // valor pontual) continua servindo a chamadas idênticas. 0 = só enquanto estiver em andamento
+    @Value("${zabbix.api.coalesce.ttl-ms:2000}")
+    private long coalesceTtlMillis;
+
+    // Threads de leitura das respostas: virtuais, uma por resposta em andamento (nenhuma por chamada esperando a rede)
+    private final ThreadFactory parserThreads = Thread.ofVirtual().name("msa-zabbix-", 0).factory();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    // Serializa os params para a chave do single-flight: mapas em ordem de chave (arrays mantêm a ordem)
+    private final ObjectMapper keyMapper = new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    /**
+     * Leitura compartilhada: o resultado da troca HTTP e quantos chamadores ainda esperam por ele.
+     * 'subscribers' só é alterado dentro do compute do mapa 'flights' (serializado por chave).
+     */
+    private static final class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        int subscribers = 1;
+        // Fim da validade do resultado (nanoTime), definido quando a leitura termina com sucesso
+        volatile long expiresAt;
+
+        boolean usable(long now) {
+            if (!result.isDone()) return subscribers > 0;
+            return !result.isCompletedExceptionally() && expiresAt != 0 && now - expiresAt < 0;
+        }
+    }
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Lê o valor de 'result' direto do parser, já posicionado no primeiro token dele.
+     */
+    @FunctionalInterface
+    private interface ResultReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
 
     /**
-     * MÉTODO CENTRAL: Envia a requisição para a API do Zabbix com o Bearer Token.
+     * MÉTODO CENTRAL: Envia a requisição para a API do Zabbix com o Bearer Token, sem bloquear.
+     *
+     * Leituras (*.get) idênticas que chegam enquanto outra está em andamento não saem de novo:
+     * esperam a mesma troca HTTP e recebem o mesmo resultado (por isso os leitores montam
+     * coleções próprias e quem chama não deve alterá-las). Veja {@link #sendAsync(ZabbixRequestDTO, ResultReader, long)}.
      */
-    private String sendRequest(ZabbixRequestDTO requestPayload)
-            throws RestClientException, ZabbixApiException {
+    private <T> CompletableFuture<T> sendAsync(ZabbixRequestDTO requestPayload, ResultReader<T> resultReader) {
+        return sendAsync(requestPayload, resultReader, 0);
+    }
+
+    /**
+     * Single-flight das leituras: a chave é o método + id do payload (cada consulta deste cliente
+     * usa um id e um leitor próprios) + os params normalizados. Com 'ttlMillis' > 0, um resultado
+     * bem-sucedido continua valendo para chamadas idênticas por esse tempo; falhas nunca ficam guardadas.
+     *
+     * Cada chamador recebe a sua cópia do resultado: cancelar (ou deixar expirar) a cópia só
+     * cancela a troca HTTP quando ninguém mais estiver esperando por ela.
+     * As chamadas aproveitadas são contadas em msa.zabbix.coalesced.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> sendAsync(ZabbixRequestDTO requestPayload, ResultReader<T> resultReader, long ttlMillis) {
+        String key = coalesceEnabled && isIdempotent(requestPayload) ? flightKey(requestPayload) : null;
+        if (key == null) {
+            return dispatch(requestPayload, resultReader);
+        }
+
+        String[] joined = new String[1];
+        Flight flight = flights.compute(key, (k, current) -> {
+            if (current != null && current.usable(System.nanoTime())) {
+                joined[0] = current.result.isDone() ? "ttl" : "in-flight";
+                current.subscribers++;
+                return current;
+            }
+            return new Flight();
+        });
+
+        if (joined[0] != null) {
+            if (meterRegistry != null) {
+                meterRegistry.counter("msa.zabbix.coalesced", "method", requestPayload.getMethod(), "source", joined[0]).increment();
+            }
+        } else {
+            // A troca HTTP começa fora do compute: uma falha imediata (ex: circuito aberto) também mexe no mapa
+            CompletableFuture<T> call = dispatch(requestPayload, resultReader);
+            flight.result.whenComplete((value, error) -> {
+                // Falha ou cancelamento (o último chamador desistiu): a entrada sai do mapa na hora
+                if (error == null) return;
+                call.cancel(true);
+                flights.remove(key, flight);
+            });
+            call.whenComplete((value, error) -> {
+                if (error != null) {
+                    flight.result.completeExceptionally(ZabbixCalls.unwrap(error));
+                    return;
+                }
+                // A validade é definida ANTES de liberar os chamadores: quem repetir a leitura logo
+                // em seguida já encontra o resultado valendo
+                if (ttlMillis > 0) {
+                    flight.expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+                    CompletableFuture.delayedExecutor(ttlMillis, TimeUnit.MILLISECONDS).execute(() -> flights.remove(key, flight));
+                } else {
+                    flights.remove(key, flight);
+                }
+                flight.result.complete(value);
+            });
+        }
+
+        CompletableFuture<T> mine = (CompletableFuture<T>) flight.result.copy();
+        mine.whenComplete((value, error) -> {
+            if (error != null && !flight.result.isDone()) leave(key, flight);
+        });
+        return mine;
+    }
+
+    /**
+     * Um chamador desistiu da leitura compartilhada; o último a sair cancela a troca HTTP.
+     */
+    private void leave(String key, Flight flight) {
+        boolean[] last = new boolean[1];
+        flights.computeIfPresent(key, (k, current) -> {
+            if (current != flight) return current;
+            last[0] = --flight.subscribers == 0;
+            return last[0] ? null : current;
+        });
+        if (last[0]) flight.result.cancel(true);
+    }
+
+    /**
+     * Chave do single-flight, ou null se os params não puderem ser serializados (a chamada segue sem compartilhar).
+     */
+    private String flightKey(ZabbixRequestDTO requestPayload) {
+        try {
+            return callKind(requestPayload) + ":" + keyMapper.writeValueAsString(requestPayload.getParams());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Envio propriamente dito, sem compartilhamento.
+     *
+     * Cada tentativa pede passagem ao circuito (falha na hora se ele estiver aberto) e ocupa uma
+     * vaga do anteparo (ZabbixBulkhead). Falhas transitórias de métodos de leitura (*.get) são
+     * repetidas até 'zabbix.api.retry.max-attempts' vezes, com espera exponencial e jitter;
+     * erros da API (campo 'error') nunca são repetidos.
+     */
+    private <T> CompletableFuture<T> dispatch(ZabbixRequestDTO requestPayload, ResultReader<T> resultReader) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        int maxAttempts = isIdempotent(requestPayload) ? Math.max(1, retryMaxAttempts) : 1;
+        attempt(requestPayload, resultReader, 1, maxAttempts, result);
+        return result;
+    }
+
+    private <T> void attempt(ZabbixRequestDTO requestPayload, ResultReader<T> resultReader, int attempt, int maxAttempts, CompletableFuture<T> result) {
+        if (result.isDone()) return;
+        if (!breaker.tryAcquire()) {
+            result.completeExceptionally(new ZabbixApiException(
+                    "Circuito do Zabbix aberto: " + requestPayload.getMethod() + " não enviado (Zabbix indisponível)."));
+            return;
+        }
+
+        CompletableFuture<T> call = bulkhead.submit(callKind(requestPayload), () -> exchange(requestPayload, resultReader));
+        result.whenComplete((value, error) -> {
+            if (error != null) call.cancel(true);
+        });
+        call.whenComplete((value, error) -> {
+            if (error == null) {
+                breaker.onSuccess();
+                result.complete(value);
+                return;
+            }
+            Throwable cause = ZabbixCalls.unwrap(error);
+            if (cause instanceof CancellationException || cause instanceof ZabbixBulkhead.RejectedException) {
+                // Não chegou a uma resposta do Zabbix: não diz nada sobre a saúde dele
+                breaker.onIgnored();
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (cause instanceof ZabbixApiException && !(cause instanceof ZabbixTransientException)) {
+                // O Zabbix respondeu (com 'error' ou resposta malformada): está no ar
+                breaker.onSuccess();
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            breaker.onFailure(cause);
+            if (cause instanceof ZabbixTransientException && attempt < maxAttempts && !result.isDone()) {
+                long delayMillis = backoffMillis(attempt);
+                if (meterRegistry != null) meterRegistry.counter("msa.zabbix.retries", "method", requestPayload.getMethod()).increment();
+                System.err.println("  > Nova tentativa de " + requestPayload.getMethod() + " em " + delayMillis + " ms ("
+                        + (attempt + 1) + "/" + maxAttempts + ").");
+                CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS)
+                        .execute(() -> attempt(requestPayload, resultReader, attempt + 1, maxAttempts, result));
+                return;
+            }
+            result.completeExceptionally(cause);
+        });
+    }
+
+    /**
+     * Tipo da chamada para o limite adaptativo: método + id do payload (cada consulta deste
+     * cliente usa um id próprio), para que uma contagem não seja comparada a um item.get de 500 itens.
+     */
+    private static String callKind(ZabbixRequestDTO requestPayload) {
+        return requestPayload.getMethod() + "#" + requestPayload.getId();
+    }
+
+    /**
+     * Só métodos de leitura são repetidos: reenviar uma escrita poderia aplicá-la duas vezes.
+     */
+    private static boolean isIdempotent(ZabbixRequestDTO requestPayload) {
+        String method = requestPayload != null ? requestPayload.getMethod() : null;
+        return method != null && (method.endsWith(".get") || method.equals("apiinfo.version"));
+    }
+
+    /**
+     * Espera exponencial com jitter total: sorteada entre 0 e min(máximo, inicial * 2^(tentativa-1)),
+     * para que vários chamadores que falharam juntos não voltem todos no mesmo instante.
+     */
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(retryMaxBackoffMillis, retryInitialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(Math.max(1, ceiling) + 1);
+    }
+
+    /**
+     * Uma tentativa: troca HTTP pelo HttpClient compartilhado em modo assíncrono (nenhuma thread
+     * fica presa esperando a rede) e leitura do corpo em streaming em uma virtual thread, assim
+     * que os cabeçalhos chegam: o 'error' do JSON-RPC é verificado ao passar por ele e o 'result'
+     * é entregue ao 'resultReader', sem montar a resposta inteira em memória.
+     *
+     * A tentativa inteira tem o prazo de 'zabbix.api.timeout-seconds'. Cancelar o future (ou deixá-lo
+     * expirar) aborta a troca HTTP e interrompe a leitura em andamento.
+     */
+    private <T> CompletableFuture<T> exchange(ZabbixRequestDTO requestPayload, ResultReader<T> resultReader) {
+        HttpRequest request;
+        try {
+            request = buildRequest(requestPayload);
+        } catch (ZabbixApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> exchange = send(callKind(requestPayload), request, isIdempotent(requestPayload));
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<Thread> reading = new AtomicReference<>();
+
+        exchange.whenComplete((response, error) -> {
+            if (error != null) {
+                Throwable cause = ZabbixCalls.unwrap(error);
+                result.completeExceptionally(cause instanceof CancellationException ? cause
+                        : new ZabbixTransientException("Falha ao conectar à API do Zabbix: " + cause.getMessage(), cause));
+                return;
+            }
+            // A leitura do corpo bloqueia: vai para uma virtual thread, nunca para as threads do HttpClient
+            parserThreads.newThread(() -> {
+                reading.set(Thread.currentThread());
+                try (InputStream body = response.body()) {
+                    if (!result.isDone()) {
+                        result.complete(readBody(requestPayload, response.statusCode(), body, resultReader, start));
+                    }
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    reading.set(null);
+                }
+            }).start();
+        });
+
+        result.orTimeout(callTimeoutSeconds, TimeUnit.SECONDS);
+        result.whenComplete((value, error) -> {
+            if (error == null) return;
+            // Cancelada, expirada ou com falha: libera a conexão e a thread de leitura
+            exchange.cancel(true);
+            Thread reader = reading.get();
+            if (reader != null) reader.interrupt();
+            if (error instanceof CancellationException) return;
+            ZabbixApiException failure = ZabbixCalls.asApiException(error);
+            if (failure.getCause() != null) {
+                // Erros da própria API (campo 'error') ficam para quem chamou; aqui só os de transporte/prazo
+                System.err.println("❌ Erro de comunicação com o Zabbix (" + requestPayload.getMethod() + "): " + failure.getMessage());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Envia a requisição e completa quando os cabeçalhos da resposta chegam.
+     *
+     * Leituras com o modo hedge ligado (ZabbixHedging): se a resposta não chegar até o p95 do tipo
+     * de chamada, e o orçamento de cópias permitir, uma cópia é enviada e vale a primeira resposta
+     * que chegar; a outra é cancelada (ou tem o corpo descartado, se já tiver chegado). Só os
+     * cabeçalhos disputam: o corpo do vencedor é lido uma única vez, pelo mesmo leitor.
+     * A cópia ocupa uma vaga extra do anteparo e só sai se houver folga e o circuito estiver fechado.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> send(String kind, HttpRequest request, boolean idempotent) {
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> primary = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        Duration hedgeDelay = (hedging != null && idempotent) ? hedging.delayFor(kind) : null;
+
+        CompletableFuture<HttpResponse<InputStream>> winner = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<HttpResponse<InputStream>>> hedge = new AtomicReference<>();
+        // Envios ainda sem resposta: a falha só vale quando nenhum outro pode mais responder
+        AtomicInteger pending = new AtomicInteger(1);
+
+        primary.whenComplete((response, error) -> settle(winner, pending, response, error, false));
+        if (hedgeDelay != null) {
+            CompletableFuture.delayedExecutor(hedgeDelay.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+                if (winner.isDone()) return;
+                // A cópia é uma chamada a mais: precisa do circuito fechado e de uma vaga livre no anteparo
+                if ((breaker != null && breaker.state() != ZabbixCircuitBreaker.State.CLOSED) || !bulkhead.tryAcquireExtra()) {
+                    hedging.onSkipped();
+                    return;
+                }
+                if (!hedging.tryHedge()) {
+                    bulkhead.releaseExtra();
+                    return;
+                }
+                pending.incrementAndGet();
+                CompletableFuture<HttpResponse<InputStream>> copy = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+                hedge.set(copy);
+                copy.whenComplete((response, error) -> {
+                    bulkhead.releaseExtra();
+                    if (error != null && !(ZabbixCalls.unwrap(error) instanceof CancellationException) && breaker != null) {
+                        // A resposta da chamada original vai para o circuito pelo attempt(); a falha da cópia, daqui
+                        breaker.onFailure(ZabbixCalls.unwrap(error));
+                    }
+                    settle(winner, pending, response, error, true);
+                });
+                if (winner.isDone()) copy.cancel(true);
+            });
+        }
+
+        winner.whenComplete((response, error) -> {
+            // Resposta escolhida (ou chamada cancelada/expirada): o envio que sobrou não é mais necessário
+            primary.cancel(true);
+            CompletableFuture<HttpResponse<InputStream>> copy = hedge.get();
+            if (copy != null) copy.cancel(true);
+            if (error == null && hedging != null) hedging.record(kind, System.nanoTime() - start);
+        });
+        return winner;
+    }
+
+    private void settle(CompletableFuture<HttpResponse<InputStream>> winner, AtomicInteger pending,
+                        HttpResponse<InputStream> response, Throwable error, boolean fromHedge) {
+        if (error == null) {
+            if (winner.complete(response)) {
+                if (fromHedge) hedging.onHedgeWon();
+            } else {
+                // Perdeu a disputa: descarta o corpo sem ler
+                try {
+                    response.body().close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        if (pending.decrementAndGet() == 0 && error != null) {
+            winner.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Valida a estrutura do payload e monta a requisição HTTP com cabeçalhos estritos.
+     */
+    private HttpRequest buildRequest(ZabbixRequestDTO requestPayload) {
 
         // ===== Validação local da estrutura =====
         if (requestPayload == null) {
@@ -69,76 +480,153 @@ public class ZabbixClient {
             throw new ZabbixApiException("Campo 'id' deve ser um número positivo.");
         }
 
-        // ===== Serialização manual do JSON =====
-        String jsonBody;
         try {
-            jsonBody = objectMapper.writeValueAsString(requestPayload);
+            // ===== Cabeçalhos estritos =====
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(zabbixApiUrl))
+                    .timeout(Duration.ofSeconds(callTimeoutSeconds))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(requestPayload)));
+            // apiinfo.version é público: o Zabbix recusa a chamada se ela vier autenticada
+            if (!requestPayload.getMethod().equals("apiinfo.version")) {
+                builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken);
+            }
+            return builder.build();
         } catch (Exception e) {
-            throw new ZabbixApiException("Falha ao serializar o payload em JSON: " + e.getMessage());
+            System.err.println("❌ Erro inesperado ao montar requisição: " + e.getMessage());
+            throw new ZabbixApiException("Erro inesperado ao processar requisição Zabbix: " + e.getMessage(), e);
         }
+    }
 
-        // ===== Validação sintática do JSON gerado =====
-        try {
-            objectMapper.readTree(jsonBody); // tenta parsear o próprio JSON — se falhar, é inválido
-        } catch (Exception e) {
-            throw new ZabbixApiException("JSON gerado é inválido: " + e.getMessage() + "\nJSON: " + jsonBody);
+    /**
+     * Lê a resposta HTTP (já na virtual thread de leitura) e registra tamanho e tempo por método
+     * em 'msa.zabbix.response.bytes' e 'msa.zabbix.response.time' (nada no log por chamada).
+     */
+    private <T> T readBody(ZabbixRequestDTO requestPayload, int statusCode, InputStream stream,
+                           ResultReader<T> resultReader, long start) throws IOException {
+        CountingInputStream body = new CountingInputStream(stream);
+        if (statusCode < 200 || statusCode >= 300) {
+            body.transferTo(OutputStream.nullOutputStream());
+            String message = "Falha ao conectar à API do Zabbix: HTTP " + statusCode;
+            if (statusCode >= 500 || statusCode == 429) {
+                throw new ZabbixTransientException(message, null);
+            }
+            throw new ZabbixApiException(message);
         }
+        T value;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            value = readResponse(parser, resultReader);
+            // Consome o resto do corpo para a conexão voltar ao pool (keep-alive)
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        if (meterRegistry != null) {
+            String method = requestPayload.getMethod();
+            meterRegistry.summary("msa.zabbix.response.bytes", "method", method).record(body.count);
+            meterRegistry.timer("msa.zabbix.response.time", "method", method).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return value;
+    }
 
-        // ===== Cabeçalhos estritos =====
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Content-Type", "application/json");
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        headers.setBearerAuth(authToken);
-
-        HttpEntity<String> requestEntity = new HttpEntity<>(jsonBody, headers);
-
-        System.out.println("🔹 Enviando requisição ao Zabbix...");
-        System.out.println("URL: " + zabbixApiUrl);
-        System.out.println("JSON enviado: " + jsonBody);
-
-        try {
-            // ===== Envio da requisição =====
-            ResponseEntity<String> response = restTemplate.exchange(
-                    zabbixApiUrl,
-                    HttpMethod.POST,
-                    requestEntity,
-                    String.class
-            );
-
-            String jsonResponse = response.getBody();
-            System.out.println("🔹 Resposta do Zabbix (" + response.getStatusCode() + "): " + jsonResponse);
-
-            // ===== Tratamento de erro no retorno =====
-            if (jsonResponse == null || jsonResponse.isBlank()) {
-                throw new ZabbixApiException("Resposta vazia da API Zabbix.");
+    /**
+     * Percorre o objeto JSON-RPC da resposta. 'error' vira ZabbixApiException assim que é lido;
+     * os demais campos (jsonrpc, id) são pulados.
+     */
+    private <T> T readResponse(JsonParser parser, ResultReader<T> resultReader) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new ZabbixApiException("Resposta inválida da API Zabbix: não é um objeto JSON.");
+        }
+        T result = null;
+        boolean hasResult = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("result".equals(field)) {
+                result = resultReader.read(parser);
+                hasResult = true;
+                continue;
             }
-
-            JsonNode rootNode = objectMapper.readTree(jsonResponse);
-
-            if (rootNode.has("error")) {
-                String errorData = rootNode.path("error").path("data").asText("");
-                String errorMessage = rootNode.path("error").path("message").asText("Erro desconhecido");
+            if ("error".equals(field)) {
+                JsonNode error = objectMapper.readTree(parser); // Objeto pequeno: message/data
+                String errorData = error.path("data").asText("");
+                String errorMessage = error.path("message").asText("Erro desconhecido");
                 throw new ZabbixApiException("Erro da API Zabbix: " + errorMessage + " - " + errorData);
             }
+            parser.skipChildren();
+        }
+        if (!hasResult) {
+            throw new ZabbixApiException("Resposta inválida da API Zabbix: campo 'result' ausente.");
+        }
+        return result;
+    }
 
-            if (!rootNode.has("result")) {
-                throw new ZabbixApiException("Resposta inválida da API Zabbix: campo 'result' ausente.\nCorpo: " + jsonResponse);
+    /**
+     * Lê um 'result' em array elemento por elemento: só um objeto fica em memória por vez
+     * além do que o 'sink' decidir guardar.
+     */
+    private <E> ResultReader<Integer> eachElement(Class<E> type, Consumer<E> sink) {
+        return parser -> {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return 0;
+            }
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                sink.accept(objectMapper.readValue(parser, type));
+                count++;
             }
+            return count;
+        };
+    }
 
-            return jsonResponse;
+    /**
+     * 'result' em array como uma lista nova a cada resposta (pode ser entregue a vários chamadores).
+     */
+    private <E> ResultReader<List<E>> listOf(Class<E> type) {
+        return parser -> {
+            List<E> elements = new ArrayList<>();
+            eachElement(type, elements::add).read(parser);
+            return Collections.unmodifiableList(elements);
+        };
+    }
 
-        } catch (RestClientException e) {
-            System.err.println("❌ Erro de comunicação com o Zabbix: " + e.getMessage());
-            throw new ZabbixApiException("Falha ao conectar à API do Zabbix: " + e.getMessage(), e);
+    /**
+     * 'result' em array como um mapa novo a cada resposta, indexado por 'key'.
+     */
+    private <E> ResultReader<Map<String, E>> mapOf(Class<E> type, Function<E, String> key) {
+        return parser -> {
+            Map<String, E> elements = new HashMap<>();
+            eachElement(type, element -> elements.put(key.apply(element), element)).read(parser);
+            return Collections.unmodifiableMap(elements);
+        };
+    }
 
-        } catch (ZabbixApiException e) {
-            // Repassa exceções tratadas internamente
-            throw e;
+    /**
+     * 'result' de uma chamada com countOutput (o Zabbix devolve o número como string).
+     */
+    private static final ResultReader<Integer> COUNT = JsonParser::getValueAsInt;
 
-        } catch (Exception e) {
-            // Fallback genérico
-            System.err.println("❌ Erro inesperado ao enviar requisição: " + e.getMessage());
-            throw new ZabbixApiException("Erro inesperado ao processar requisição Zabbix: " + e.getMessage(), e);
+    /**
+     * Conta os bytes lidos da resposta, para o resumo do log.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) count += n;
+            return n;
         }
     }
 
@@ -147,51 +635,62 @@ public class ZabbixClient {
      * Verifica se um host existe no Zabbix usando a API host.get.
      */
     public boolean hostExists(Long zabbixId) {
-        System.out.println("VALIDANDO no Zabbix se o host com ID " + zabbixId + " existe...");
-        Map<String, Object> params = Map.of("hostids", zabbixId, "countOutput", true);
-        ZabbixRequestDTO request = new ZabbixRequestDTO("host.get", params, 1);
         try {
-            String jsonResponse = sendRequest(request);
-            JsonNode rootNode = objectMapper.readTree(jsonResponse);
-            
-            if (rootNode.has("error")) {
-                System.err.println("Erro da API Zabbix ao verificar host: " + rootNode.get("error").get("data").asText());
-                return false;
-            }
-            return rootNode.get("result").asInt() > 0;
+            return ZabbixCalls.await(hostExistsAsync(zabbixId));
         } catch (Exception e) {
             System.err.println("Erro crítico ao verificar host " + zabbixId + ": " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Versão assíncrona de {@link #hostExists(Long)}. Falhas chegam ao future como ZabbixApiException.
+     */
+    public CompletableFuture<Boolean> hostExistsAsync(Long zabbixId) {
+        Map<String, Object> params = Map.of("hostids", zabbixId, "countOutput", true);
+        ZabbixRequestDTO request = new ZabbixRequestDTO("host.get", params, 1);
+        return ZabbixCalls.map(sendAsync(request, COUNT, coalesceTtlMillis), count -> count > 0);
+    }
+
     /**
      * Verifica se um item (métrica) com uma chave específica existe em um host.
      */
     public boolean itemExistsOnHost(Long zabbixId, String itemKey) {
-        System.out.println("VALIDANDO no Zabbix se o item '" + itemKey + "' existe no host " + zabbixId);
-        Map<String, Object> params = Map.of("hostids", zabbixId, "search", Map.of("key_", itemKey), "countOutput", true);
-        ZabbixRequestDTO request = new ZabbixRequestDTO("item.get", params, 2);
         try {
-            String jsonResponse = sendRequest(request);
-            JsonNode rootNode = objectMapper.readTree(jsonResponse);
-            if (rootNode.has("error")) {
-                System.err.println("Erro da API Zabbix ao verificar item '" + itemKey + "': " + rootNode.get("error").get("data").asText());
-                return false;
-            }
-            return rootNode.get("result").asInt() > 0;
+            return ZabbixCalls.await(itemExistsOnHostAsync(zabbixId, itemKey));
         } catch (Exception e) {
             System.err.println("Erro crítico ao verificar item '" + itemKey + "' no host " + zabbixId + ": " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Versão assíncrona de {@link #itemExistsOnHost(Long, String)}: várias chaves podem ser
+     * validadas ao mesmo tempo e reunidas com {@link ZabbixCalls#allOf(Map)}.
+     */
+    public CompletableFuture<Boolean> itemExistsOnHostAsync(Long zabbixId, String itemKey) {
+        Map<String, Object> params = Map.of("hostids", zabbixId, "search", Map.of("key_", itemKey), "countOutput", true);
+        ZabbixRequestDTO request = new ZabbixRequestDTO("item.get", params, 2);
+        return ZabbixCalls.map(sendAsync(request, COUNT, coalesceTtlMillis), count -> count > 0);
+    }
+
     /**
      * Busca o último valor de UM item (métrica) específico.
-     * Esta é a chamada N+1 que o Scheduler usará.
+     * Mantido para consultas pontuais; o Scheduler usa getItemValuesForHost (uma chamada por host).
      */
     public String getSingleItemValue(Long zabbixHostId, String itemKey) {
-                
+        try {
+            return ZabbixCalls.await(getSingleItemValueAsync(zabbixHostId, itemKey));
+        } catch (Exception e) {
+            System.err.println("Erro crítico ao buscar valor do item '" + itemKey + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Versão assíncrona de {@link #getSingleItemValue(Long, String)}. Completa com null se o item não existir.
+     */
+    public CompletableFuture<String> getSingleItemValueAsync(Long zabbixHostId, String itemKey) {
         Map<String, Object> params = Map.of(
             "hostids", zabbixHostId,
             "output", new String[]{"key_", "lastvalue"},
@@ -200,93 +699,213 @@ public class ZabbixClient {
         );
         ZabbixRequestDTO request = new ZabbixRequestDTO("item.get", params, 3);
 
-        try {
-            String jsonResponse = sendRequest(request); // Usa o método de envio com Bearer Token
-            
-            JsonNode resultNode = objectMapper.readTree(jsonResponse).get("result");
-            if (resultNode == null || !resultNode.isArray() || resultNode.isEmpty()) {
+        return ZabbixCalls.map(sendAsync(request, listOf(ZabbixItem.class), coalesceTtlMillis), items -> {
+            if (items.isEmpty()) {
                 System.err.println("  > Item '" + itemKey + "' não encontrado no host " + zabbixHostId);
                 return null;
             }
+            return items.get(0).getLastValue();
+        });
+    }
 
-            ZabbixItem item = objectMapper.treeToValue(resultNode.get(0), ZabbixItem.class);
-            return item.getLastValue();
-
-        } catch (Exception e) {
-            System.err.println("Erro crítico ao buscar valor do item '" + itemKey + "': " + e.getMessage());
-            return null;
-        }
+    /**
+     * Busca o último valor de TODOS os itens informados de um host em uma única chamada item.get.
+     * Usa 'filter' (comparação exata) com a lista de chaves, evitando uma requisição por métrica.
+     * Retorna um mapa indexado pela chave Zabbix (key_). Chaves não encontradas ficam fora do mapa.
+     * Lança ZabbixApiException em caso de falha, para não ser confundida com um host sem itens.
+     */
+    public Map<String, ZabbixItemResponseDTO> getItemValuesForHost(Long zabbixHostId, Collection<String> itemKeys) {
+        return ZabbixCalls.await(getItemValuesForHostAsync(zabbixHostId, itemKeys));
     }
 
     /**
-     * Busca os 5 eventos (problemas) mais recentes de um host.
+     * Versão assíncrona de {@link #getItemValuesForHost(Long, Collection)}.
      */
-    public List<ZabbixEventDTO> getRecentEvents(Long zabbixHostId) {
+    public CompletableFuture<Map<String, ZabbixItemResponseDTO>> getItemValuesForHostAsync(Long zabbixHostId, Collection<String> itemKeys) {
+        if (itemKeys == null || itemKeys.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+
         Map<String, Object> params = Map.of(
-            "hostids", zabbixHostId, "output", "extend", "selectHosts", "extend",
-            "sortfield", new String[]{"clock"}, "sortorder", "DESC", "limit", 5, "value", 1
+            "hostids", zabbixHostId,
+            "output", new String[]{"itemid", "key_", "lastvalue", "lastclock", "lastns", "value_type"},
+            "filter", Map.of("key_", itemKeys) // 'filter' aceita um array de chaves
         );
-        ZabbixRequestDTO request = new ZabbixRequestDTO("event.get", params, 5);
+        ZabbixRequestDTO request = new ZabbixRequestDTO("item.get", params, 4);
+
+        return sendAsync(request, mapOf(ZabbixItemResponseDTO.class, ZabbixItemResponseDTO::getKey));
+    }
+
+    /**
+     * Busca o último valor de uma lista de itens (de qualquer host) diretamente pelos 'itemids'.
+     * A lista é dividida em blocos de 'zabbix.api.item-chunk-size' itens, de modo que a frota
+     * inteira é coletada com poucas chamadas item.get.
+     * Itens não retornados (ex: excluídos) ficam fora do mapa; os itens de blocos que falharam
+     * vão para {@link ZabbixItemValues#failedItemIds()}, para não serem tratados como excluídos.
+     */
+    public ZabbixItemValues getItemValuesByIds(Collection<String> itemIds) {
         try {
-            String jsonResponse = sendRequest(request);
-            JsonNode rootNode = objectMapper.readTree(jsonResponse);
-            if (rootNode.has("error")) {
-                System.err.println("Erro da API Zabbix ao buscar eventos: " + rootNode.get("error").get("data").asText());
-                return Collections.emptyList();
-            }
-            ZabbixEventDTO[] events = objectMapper.treeToValue(rootNode.get("result"), ZabbixEventDTO[].class);
-            return Arrays.asList(events);
+            return ZabbixCalls.await(getItemValuesByIdsAsync(itemIds));
         } catch (Exception e) {
-            System.err.println("Erro crítico ao buscar eventos para o host " + zabbixHostId + ": " + e.getMessage());
-            return Collections.emptyList();
+            // Só chega aqui se a espera for interrompida (ex: prazo do coletor): nenhum item foi lido
+            System.err.println("Erro crítico ao buscar " + itemIds.size() + " itens: " + e.getMessage());
+            return new ZabbixItemValues(Collections.emptyMap(), Set.copyOf(itemIds));
         }
     }
 
     /**
-     * Faz uma chamada simples à API para verificar a conexão.
-     * Lança uma exceção se a conexão falhar.
-     */ 
-    public void testConnection() throws Exception {
-        System.out.println("--- INICIANDO TESTE DE CONEXÃO COM A API DO ZABBIX ---");
-        System.out.println("URL da API do Zabbix: " + zabbixApiUrl);
+     * Versão assíncrona de {@link #getItemValuesByIds(Collection)}: os blocos saem todos de uma vez
+     * e são reunidos no fim. Um bloco que falhar não derruba os demais: os seus itens voltam como falhos.
+     */
+    public CompletableFuture<ZabbixItemValues> getItemValuesByIdsAsync(Collection<String> itemIds) {
+        List<String> ids = List.copyOf(itemIds);
+        List<CompletableFuture<ZabbixItemValues>> chunks = new ArrayList<>();
+
+        for (int start = 0; start < ids.size(); start += itemChunkSize) {
+            List<String> chunk = ids.subList(start, Math.min(start + itemChunkSize, ids.size()));
+            Map<String, Object> params = Map.of(
+                "itemids", chunk,
+                "output", new String[]{"itemid", "hostid", "key_", "lastvalue", "lastclock", "lastns", "value_type"}
+            );
+            ZabbixRequestDTO request = new ZabbixRequestDTO("item.get", params, 6);
+
+            // Cada item vai direto do stream para o mapa do bloco, sem cópia intermediária da resposta
+            CompletableFuture<Map<String, ZabbixItemResponseDTO>> call =
+                    sendAsync(request, mapOf(ZabbixItemResponseDTO.class, ZabbixItemResponseDTO::getItemId));
+            CompletableFuture<ZabbixItemValues> values = ZabbixCalls.map(call, items -> new ZabbixItemValues(items, Set.of()));
+            chunks.add(ZabbixCalls.recover(values, e -> {
+                System.err.println("Erro crítico ao buscar bloco de " + chunk.size() + " itens: " + e.getMessage());
+                return new ZabbixItemValues(Collections.emptyMap(), Set.copyOf(chunk));
+            }));
+        }
+        return ZabbixCalls.map(ZabbixCalls.allOf(chunks), results -> {
+            Map<String, ZabbixItemResponseDTO> itemsById = new HashMap<>();
+            Set<String> failedItemIds = new HashSet<>();
+            results.forEach(result -> {
+                itemsById.putAll(result.itemsById());
+                failedItemIds.addAll(result.failedItemIds());
+            });
+            return new ZabbixItemValues(itemsById, failedItemIds);
+        });
+    }
 
-        // Monta o JSON exatamente como JSON Puro
-        String jsonBody = """
-            {
-            "jsonrpc": "2.0",
-            "method": "apiinfo.version",
-            "params": [],
-            "id": 99
-            }
-            """;
+    /**
+     * Busca, para todos os hosts informados, os eventos de problema (trigger) com eventid
+     * maior que 'lastEventId', em ordem crescente de eventid (no máximo 'limit' eventos).
+     * Se 'timeFrom' for informado (primeira sincronização), limita a busca aos eventos a partir dele.
+     * Lança ZabbixApiException em caso de falha, para que o watermark não avance.
+     */
+    public List<ZabbixEventDTO> getProblemEventsAfter(Collection<Long> zabbixHostIds, long lastEventId, Long timeFrom, int limit) {
+        return ZabbixCalls.await(getProblemEventsAfterAsync(zabbixHostIds, lastEventId, timeFrom, limit));
+    }
+
+    /**
+     * Versão assíncrona de {@link #getProblemEventsAfter(Collection, long, Long, int)}.
+     */
+    public CompletableFuture<List<ZabbixEventDTO>> getProblemEventsAfterAsync(Collection<Long> zabbixHostIds, long lastEventId, Long timeFrom, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("hostids", zabbixHostIds);
+        params.put("source", 0); // Eventos de trigger
+        params.put("object", 0);
+        params.put("value", 1);  // Somente problemas
+        params.put("output", new String[]{"eventid", "objectid", "clock", "name", "severity", "r_eventid"});
+        params.put("selectHosts", new String[]{"hostid"});
+        params.put("sortfield", new String[]{"eventid"});
+        params.put("sortorder", "ASC");
+        params.put("limit", limit);
+        if (lastEventId > 0) {
+            params.put("eventid_from", lastEventId + 1);
+        }
+        if (timeFrom != null) {
+            params.put("time_from", timeFrom);
+        }
+        return sendAsync(new ZabbixRequestDTO("event.get", params, 5), listOf(ZabbixEventDTO.class));
+    }
 
-        System.out.println("JSON enviado: " + jsonBody);
+    /**
+     * Verifica quais dos eventos de problema informados já foram resolvidos no Zabbix.
+     * Retorna um mapa eventid do problema -> clock do evento de recuperação.
+     * Problemas que não existem mais no Zabbix (removidos pelo housekeeper) voltam com clock 0.
+     * Lança ZabbixApiException em caso de falha.
+     */
+    public Map<String, Long> getRecoveryClocks(Collection<String> problemEventIds) {
+        return ZabbixCalls.await(getRecoveryClocksAsync(problemEventIds));
+    }
 
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+    /**
+     * Versão assíncrona de {@link #getRecoveryClocks(Collection)}: os blocos são consultados em paralelo.
+     */
+    public CompletableFuture<Map<String, Long>> getRecoveryClocksAsync(Collection<String> problemEventIds) {
+        List<String> ids = List.copyOf(problemEventIds);
+        List<CompletableFuture<Map<String, Long>>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += itemChunkSize) {
+            chunks.add(recoveryClocksForChunk(ids.subList(start, Math.min(start + itemChunkSize, ids.size()))));
+        }
+        return ZabbixCalls.map(ZabbixCalls.allOf(chunks), results -> {
+            Map<String, Long> recoveryClocks = new HashMap<>();
+            results.forEach(recoveryClocks::putAll);
+            return recoveryClocks;
+        });
+    }
+
+    private CompletableFuture<Map<String, Long>> recoveryClocksForChunk(List<String> chunk) {
+        Map<String, Long> recoveryClocks = new HashMap<>();
 
-            HttpEntity<String> entity = new HttpEntity<>(jsonBody, headers);
+        // 1. Problemas: quais já têm evento de recuperação (r_eventid != 0)
+        Map<String, Object> problemParams = Map.of(
+            "eventids", chunk,
+            "output", new String[]{"eventid", "r_eventid"}
+        );
+        CompletableFuture<List<ZabbixEventDTO>> problems = sendAsync(new ZabbixRequestDTO("event.get", problemParams, 8), listOf(ZabbixEventDTO.class));
+
+        return ZabbixCalls.thenCall(problems, problemEvents -> {
+            Map<String, String> problemByRecovery = new HashMap<>();
+            Set<String> found = new HashSet<>();
+            for (ZabbixEventDTO problem : problemEvents) {
+                found.add(problem.getEventId());
+                String recoveryId = problem.getRecoveryEventId();
+                if (recoveryId != null && !recoveryId.equals("0")) {
+                    problemByRecovery.put(recoveryId, problem.getEventId());
+                }
+            }
+            chunk.stream().filter(id -> !found.contains(id)).forEach(id -> recoveryClocks.put(id, 0L));
+            if (problemByRecovery.isEmpty()) {
+                return CompletableFuture.completedFuture(recoveryClocks);
+            }
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    zabbixApiUrl,
-                    HttpMethod.POST,
-                    entity,
-                    String.class
+            // 2. Eventos de recuperação: o clock deles é o momento da resolução
+            Map<String, Object> recoveryParams = Map.of(
+                "eventids", problemByRecovery.keySet(),
+                "output", new String[]{"eventid", "clock"}
             );
+            return ZabbixCalls.map(sendAsync(new ZabbixRequestDTO("event.get", recoveryParams, 9), listOf(ZabbixEventDTO.class)),
+                    recoveries -> {
+                        recoveries.forEach(recovery -> recoveryClocks.put(problemByRecovery.get(recovery.getEventId()), recovery.getClock()));
+                        return recoveryClocks;
+                    });
+        });
+    }
 
-            System.out.println("Resposta completa: " + response);
+    /**
+     * Versão da API do Zabbix (apiinfo.version, sem autenticação): base do health check público.
+     * Health checks simultâneos, ou dentro de 'zabbix.api.coalesce.ttl-ms', dividem uma única chamada.
+     */
+    public CompletableFuture<String> apiVersionAsync() {
+        ZabbixRequestDTO request = new ZabbixRequestDTO("apiinfo.version", List.of(), 99);
+        return sendAsync(request, JsonParser::getValueAsString, coalesceTtlMillis);
+    }
 
-            if (response.getStatusCode().is2xxSuccessful() &&
-                response.getBody() != null &&
-                response.getBody().contains("\"result\"")) {
-                System.out.println("✅ Teste de conexão bem-sucedido: " + response.getBody());
-            } else {
-                throw new RuntimeException("❌ Resposta inválida da API do Zabbix: " +
-                        (response.getBody() != null ? response.getBody() : "Corpo nulo"));
-            }
+    /**
+     * Faz uma chamada simples à API para verificar a conexão.
+     * Lança uma exceção se a conexão falhar.
+     */ 
+    public void testConnection() throws Exception {
+        System.out.println("--- INICIANDO TESTE DE CONEXÃO COM A API DO ZABBIX ---");
+        System.out.println("URL da API do Zabbix: " + zabbixApiUrl);
 
+        try {
+            String version = ZabbixCalls.await(apiVersionAsync());
+            System.out.println("✅ Teste de conexão bem-sucedido: Zabbix " + version);
         } catch (Exception e) {
             System.err.println("FALHA no teste de conexão com o Zabbix: " + e.getMessage());
             throw new RuntimeException("Não foi possível conectar à API do Zabbix. Verifique a URL.", e);
@@ -23,6 +23,9 @@ public class ZabbixEventDTO {
 
     @JsonProperty("severity")
     private int severity;
+
+    @JsonProperty("r_eventid")
+    private String recoveryEventId; // "0" enquanto o problema está aberto
     
     // O campo "hosts" na resposta do Zabbix é um array
     @JsonProperty("hosts")
@@ -1,13 +1,18 @@
 package br.com.dti.msa.integration.zabbix.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 @Data
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class ZabbixItemResponseDTO {
     @JsonProperty("itemid")
     private String itemId;
 
+    @JsonProperty("hostid")
+    private String hostId;
+
     @JsonProperty("name")
     private String name;
 
@@ -16,4 +21,13 @@ public class ZabbixItemResponseDTO {
 
     @JsonProperty("lastvalue")
     private String lastValue;
-}
\ No newline at end of file
+
+    @JsonProperty("lastclock")
+    private long lastClock; // Timestamp (epoch em segundos) do último valor
+
+    @JsonProperty("lastns")
+    private long lastNs; // Nanossegundos do último valor (complementa o lastclock)
+
+    @JsonProperty("value_type")
+    private int valueType; // 0 float, 1 char, 2 log, 3 unsigned, 4 text
+}
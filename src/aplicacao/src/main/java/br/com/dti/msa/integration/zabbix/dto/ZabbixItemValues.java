@@ -0,0 +1,18 @@
+package br.com.dti.msa.integration.zabbix.dto;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resultado de uma busca de itens por 'itemids' dividida em blocos.
+ *
+ * @param itemsById     os itens retornados, indexados pelo itemid
+ * @param failedItemIds os itemids dos blocos que falharam (erro, prazo, circuito aberto):
+ *                      não se sabe nada deles, ao contrário dos itens que o Zabbix não retornou
+ */
+public record ZabbixItemValues(Map<String, ZabbixItemResponseDTO> itemsById, Set<String> failedItemIds) {
+
+    public boolean failed(String itemId) {
+        return failedItemIds.contains(itemId);
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.dti.msa.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Representa a tabela 'collector_nodes'.
+ * Um registro por instância do MSA que participa da coleta, com o lease (heartbeat) dela.
+ */
+@Data
+@Entity
+@Table(name = "collector_nodes")
+public class CollectorNode {
+
+    @Id
+    @Column(name = "node_id")
+    private String nodeId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "last_heartbeat", nullable = false)
+    private LocalDateTime lastHeartbeat;
+}
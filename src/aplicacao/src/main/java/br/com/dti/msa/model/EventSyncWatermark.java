@@ -0,0 +1,37 @@
+package br.com.dti.msa.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Representa a tabela 'event_sync_watermark'.
+ * Guarda até onde (eventid/clock do Zabbix) os eventos já foram sincronizados,
+ * para que cada ciclo busque apenas os eventos novos.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "event_sync_watermark")
+public class EventSyncWatermark {
+
+    @Id
+    private String id;
+
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+
+    @Column(name = "last_clock", nullable = false)
+    private Long lastClock;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public EventSyncWatermark(String id, Long lastEventId, Long lastClock) {
+        this.id = id;
+        this.lastEventId = lastEventId;
+        this.lastClock = lastClock;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
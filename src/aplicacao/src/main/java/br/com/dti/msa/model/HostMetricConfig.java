@@ -39,6 +39,10 @@ public class HostMetricConfig {
     @Column(name = "zabbix_key", nullable = false)
     private String zabbixKey;
 
+    // Sobrescreve o intervalo de coleta da métrica para este host (null = usa o da métrica)
+    @Column(name = "collect_interval_seconds")
+    private Integer collectIntervalSeconds;
+
     // --- Construtores ---
     
     public HostMetricConfig() {}
@@ -49,6 +53,15 @@ public class HostMetricConfig {
         this.zabbixKey = zabbixKey;
     }
 
+    /**
+     * Intervalo de coleta efetivo, em segundos: o do host, se definido, senão o da métrica.
+     */
+    public int effectiveIntervalSeconds() {
+        if (collectIntervalSeconds != null && collectIntervalSeconds > 0) return collectIntervalSeconds;
+        Integer metricInterval = (metric != null) ? metric.getCollectIntervalSeconds() : null;
+        return (metricInterval != null && metricInterval > 0) ? metricInterval : 60;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -22,6 +22,10 @@ public class Metric {
     private String name;
     private String unit;
 
+    // Intervalo padrão de coleta desta métrica, em segundos
+    @Column(name = "collect_interval_seconds", nullable = false)
+    private Integer collectIntervalSeconds = 60;
+
     // --- RELACIONAMENTO CORRIGIDO ---
     // Uma Métrica (conceito) pode estar em MUITAS Configurações de Host
     @OneToMany(mappedBy = "metric", fetch = FetchType.LAZY)
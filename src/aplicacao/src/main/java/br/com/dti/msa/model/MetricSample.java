@@ -0,0 +1,11 @@
+package br.com.dti.msa.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uma amostra numérica coletada, pronta para ser gravada em 'metric_history'.
+ * Não é uma entidade JPA: carrega apenas os IDs, para que a gravação em lote
+ * via JDBC não precise carregar Host/Metric nem fazer SELECT antes do INSERT.
+ */
+public record MetricSample(long hostId, long metricId, LocalDateTime timestamp, double value) {
+}
@@ -0,0 +1,8 @@
+package br.com.dti.msa.model;
+
+/**
+ * Um valor de texto/JSON coletado, pronto para ser gravado em 'metric_current_value'.
+ * Assim como {@link MetricSample}, carrega apenas os IDs para a gravação em lote via JDBC.
+ */
+public record MetricTextValue(long hostId, long metricId, String value) {
+}
@@ -15,6 +15,12 @@ public class RecentEvents {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * O eventid do Zabbix. Chave de deduplicação da sincronização.
+     */
+    @Column(name = "zabbix_event_id", unique = true)
+    private Long zabbixEventId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "host_id", nullable = false)
     private Host host;
@@ -29,4 +35,10 @@ public class RecentEvents {
 
     @JdbcTypeCode(SqlTypes.JSON)
     private String details;
+
+    @Column(nullable = false)
+    private boolean resolved;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package br.com.dti.msa.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Representa a tabela 'zabbix_item_ref'.
+ * Guarda o itemid (e o value_type) já resolvido para cada par (host Zabbix, chave Zabbix),
+ * permitindo que o coletor busque os valores por 'itemids' em vez de pesquisar por key_.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "zabbix_item_ref")
+@IdClass(ZabbixItemRefId.class)
+public class ZabbixItemRef {
+
+    @Id
+    @Column(name = "zabbix_host_id")
+    private Long zabbixHostId;
+
+    @Id
+    @Column(name = "zabbix_key")
+    private String zabbixKey;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "value_type", nullable = false)
+    private Integer valueType;
+
+    @Column(name = "resolved_at", nullable = false)
+    private LocalDateTime resolvedAt;
+
+    public ZabbixItemRef(Long zabbixHostId, String zabbixKey, Long itemId, Integer valueType) {
+        this.zabbixHostId = zabbixHostId;
+        this.zabbixKey = zabbixKey;
+        this.itemId = itemId;
+        this.valueType = valueType;
+        this.resolvedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.dti.msa.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+
+/**
+ * Representa a Chave Primária Composta da tabela zabbix_item_ref.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZabbixItemRefId implements Serializable {
+    private Long zabbixHostId;
+    private String zabbixKey;
+}
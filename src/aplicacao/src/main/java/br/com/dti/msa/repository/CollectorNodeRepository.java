@@ -0,0 +1,40 @@
+package br.com.dti.msa.repository;
+
+import br.com.dti.msa.model.CollectorNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface CollectorNodeRepository extends JpaRepository<CollectorNode, String> {
+
+    /**
+     * Registra o nó ou renova o lease dele, usando o relógio do banco.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+        "INSERT INTO collector_nodes (node_id, started_at, last_heartbeat) VALUES (:nodeId, NOW(6), NOW(6)) " +
+        "ON DUPLICATE KEY UPDATE last_heartbeat = NOW(6)")
+    void heartbeat(@Param("nodeId") String nodeId);
+
+    /**
+     * IDs dos nós com lease válido (heartbeat nos últimos 'ttlSeconds' segundos), em ordem.
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT node_id FROM collector_nodes " +
+        "WHERE last_heartbeat > NOW(6) - INTERVAL :ttlSeconds SECOND ORDER BY node_id")
+    List<String> findLiveNodeIds(@Param("ttlSeconds") long ttlSeconds);
+
+    /**
+     * Remove os nós com lease vencido há muito tempo (limpeza da tabela).
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+        "DELETE FROM collector_nodes WHERE last_heartbeat < NOW(6) - INTERVAL :ageSeconds SECOND")
+    int deleteExpired(@Param("ageSeconds") long ageSeconds);
+}
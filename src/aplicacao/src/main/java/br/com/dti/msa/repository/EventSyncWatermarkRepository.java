@@ -0,0 +1,7 @@
+package br.com.dti.msa.repository;
+
+import br.com.dti.msa.model.EventSyncWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EventSyncWatermarkRepository extends JpaRepository<EventSyncWatermark, String> {
+}
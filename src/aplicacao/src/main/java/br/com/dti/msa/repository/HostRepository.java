@@ -2,6 +2,7 @@ package br.com.dti.msa.repository;
 
 import br.com.dti.msa.model.Host;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
@@ -66,4 +67,14 @@ public interface HostRepository extends JpaRepository<Host, Long> {
     List<Host> findByStatusIn(List<Host.HostStatus> statuses);
 
     boolean existsByZabbixId(Long zabbixId);
+
+    /**
+     * Atualiza somente o status do host (usado pelo coletor).
+     * Não carrega nem regrava a entidade, então não sobrescreve edições feitas no admin.
+     */
+    @Modifying
+    @Query("UPDATE Host h SET h.status = :status, h.statusDescription = :description WHERE h.id = :hostId")
+    int updateStatus(@Param("hostId") Long hostId,
+                     @Param("status") Host.HostStatus status,
+                     @Param("description") String description);
 }
\ No newline at end of file
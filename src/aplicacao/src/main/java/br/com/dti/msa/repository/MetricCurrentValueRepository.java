@@ -8,7 +8,7 @@ public interface MetricCurrentValueRepository extends JpaRepository<MetricCurren
 
     /**
      * Encontra um registro de valor atual com base na combinação de Host e Métrica.
-     * Usado pelo Scheduler para saber se deve criar um novo registro ou atualizar um existente.
+     * (O coletor grava em lote pelo MetricCurrentValueWriter.)
      */
     Optional<MetricCurrentValue> findByHostIdAndMetricId(Long hostId, Long metricId);
 
@@ -0,0 +1,147 @@
+package br.com.dti.msa.repository;
+
+import br.com.dti.msa.model.MetricTextValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gravação em lote na tabela 'metric_current_value', sensível a mudanças.
+ *
+ * Mantém em memória o último valor gravado de cada (host, métrica). Valores que não
+ * mudaram (ex: 'os-nome', 'os-arch') não são regravados: apenas o 'last_updated' deles
+ * é renovado com um único UPDATE em massa. Os valores que mudaram vão em um lote de
+ * INSERT ... ON DUPLICATE KEY UPDATE sobre a chave única 'uk_host_metric', com o alias de
+ * linha 'new' (MySQL 8.0.19+) no lugar do VALUES(col), que está obsoleto.
+ */
+@Repository
+public class MetricCurrentValueWriter {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO metric_current_value (host_id, metric_id, current_value, last_updated) VALUES (?, ?, ?, ?) AS new " +
+        "ON DUPLICATE KEY UPDATE current_value = new.current_value, last_updated = new.last_updated";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${msa.current-value.writer.batch-size:1000}")
+    private int batchSize;
+
+    // Chave do mapa: "<hostId>|<metricId>" -> último valor gravado
+    private final Map<String, String> lastSeen = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    public MetricCurrentValueWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Grava os valores de texto de um ciclo.
+     *
+     * @return o número de valores que mudaram (e foram regravados).
+     */
+    public int write(List<MetricTextValue> values, LocalDateTime collectedAt) {
+        if (values == null || values.isEmpty()) return 0;
+        ensureLoaded();
+
+        List<MetricTextValue> changed = new ArrayList<>();
+        List<MetricTextValue> unchanged = new ArrayList<>();
+        for (MetricTextValue value : values) {
+            if (Objects.equals(lastSeen.get(cacheKey(value.hostId(), value.metricId())), value.value())) {
+                unchanged.add(value);
+            } else {
+                changed.add(value);
+            }
+        }
+
+        Timestamp timestamp = Timestamp.valueOf(collectedAt);
+        if (!changed.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, changed, batchSize, (ps, value) -> {
+                ps.setLong(1, value.hostId());
+                ps.setLong(2, value.metricId());
+                ps.setString(3, value.value());
+                ps.setTimestamp(4, timestamp);
+            });
+            changed.forEach(value -> lastSeen.put(cacheKey(value.hostId(), value.metricId()), value.value()));
+        }
+
+        if (!unchanged.isEmpty()) {
+            touch(unchanged, timestamp);
+        }
+
+        System.out.println("  > Valores atuais: " + changed.size() + " alterados, " + unchanged.size() + " sem mudança");
+        return changed.size();
+    }
+
+    /**
+     * Descarta os valores em memória dos hosts que este nó não coleta mais (troca de dono no
+     * cluster). Enquanto outro nó coleta o host, o valor no banco muda sem passar por este cache;
+     * se o host voltar, o primeiro valor dele é regravado em vez de só renovar o 'last_updated'.
+     */
+    public void retain(Set<Long> hostIds) {
+        lastSeen.keySet().removeIf(key -> !hostIds.contains(Long.valueOf(key.substring(0, key.indexOf('|')))));
+    }
+
+    /**
+     * Descarta os valores em memória de um host (ex: host excluído).
+     */
+    public void forgetHost(Long hostId) {
+        lastSeen.keySet().removeIf(key -> key.startsWith(hostId + "|"));
+    }
+
+    /**
+     * Renova o 'last_updated' dos valores que não mudaram, em blocos de 'batchSize' pares (host, métrica).
+     * Se alguma linha não existir mais no banco (removida fora do coletor), o cache é descartado
+     * e recarregado no próximo ciclo, para que o valor volte a ser inserido.
+     */
+    private void touch(List<MetricTextValue> unchanged, Timestamp timestamp) {
+        int touched = 0;
+        for (int start = 0; start < unchanged.size(); start += batchSize) {
+            List<MetricTextValue> chunk = unchanged.subList(start, Math.min(start + batchSize, unchanged.size()));
+            StringBuilder sql = new StringBuilder("UPDATE metric_current_value SET last_updated = ? WHERE (host_id, metric_id) IN (");
+            List<Object> args = new ArrayList<>(chunk.size() * 2 + 1);
+            args.add(timestamp);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+                args.add(chunk.get(i).hostId());
+                args.add(chunk.get(i).metricId());
+            }
+            sql.append(")");
+            touched += jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+
+        if (touched < unchanged.size()) {
+            System.err.println("  > " + (unchanged.size() - touched) + " valores atuais não encontrados no banco. Recarregando cache.");
+            synchronized (this) {
+                lastSeen.clear();
+                loaded = false;
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            jdbcTemplate.query("SELECT host_id, metric_id, current_value FROM metric_current_value", rs -> {
+                String value = rs.getString("current_value");
+                if (value != null) {
+                    lastSeen.put(cacheKey(rs.getLong("host_id"), rs.getLong("metric_id")), value);
+                }
+            });
+            loaded = true;
+        }
+    }
+
+    private String cacheKey(long hostId, long metricId) {
+        return hostId + "|" + metricId;
+    }
+}
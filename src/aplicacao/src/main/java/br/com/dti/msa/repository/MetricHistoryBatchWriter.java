@@ -0,0 +1,84 @@
+package br.com.dti.msa.repository;
+
+import br.com.dti.msa.model.MetricSample;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação em lote de alto volume na tabela 'metric_history'.
+ *
+ * O saveAll() do Spring Data faz um merge (SELECT + INSERT) por linha, pois a
+ * entidade MetricHistory tem chave composta atribuída. Aqui os registros vão
+ * direto por JDBC em lotes de 'msa.history.writer.batch-size' linhas; com
+ * 'rewriteBatchedStatements=true' na URL o driver do MySQL transforma cada lote
+ * em INSERTs de múltiplas linhas. Duplicatas da chave (host, métrica, timestamp)
+ * são ignoradas (INSERT IGNORE), o que torna a gravação idempotente.
+ */
+@Repository
+public class MetricHistoryBatchWriter {
+
+    private static final String INSERT_SQL =
+        "INSERT IGNORE INTO metric_history (host_id, metric_id, `timestamp`, `value`) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${msa.history.writer.batch-size:1000}")
+    private int batchSize;
+
+    private final Counter rowsWritten;
+    private final Timer writeTimer;
+
+    public MetricHistoryBatchWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rowsWritten = Counter.builder("msa.history.rows.written")
+                .description("Linhas gravadas em metric_history")
+                .register(meterRegistry);
+        this.writeTimer = Timer.builder("msa.history.write")
+                .description("Tempo de cada gravação em lote em metric_history")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Grava as amostras em lotes e retorna o número de linhas efetivamente inseridas
+     * (duplicatas ignoradas não contam).
+     */
+    public int write(List<MetricSample> samples) {
+        if (samples == null || samples.isEmpty()) return 0;
+
+        long start = System.nanoTime();
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_SQL, samples, batchSize, (ps, sample) -> {
+            ps.setLong(1, sample.hostId());
+            ps.setLong(2, sample.metricId());
+            ps.setTimestamp(3, Timestamp.valueOf(sample.timestamp()));
+            ps.setDouble(4, sample.value());
+        });
+        long elapsedNanos = System.nanoTime() - start;
+
+        int inserted = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                // Com lotes reescritos o driver pode devolver SUCCESS_NO_INFO (-2) por linha
+                inserted += (count == Statement.SUCCESS_NO_INFO) ? 1 : Math.max(count, 0);
+            }
+        }
+
+        rowsWritten.increment(inserted);
+        writeTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        System.out.println(String.format(Locale.US,
+            "  > Histórico: %d de %d linhas gravadas em %.1f ms (%.0f linhas/s)",
+            inserted, samples.size(), elapsedNanos / 1_000_000.0, samples.size() / seconds));
+        return inserted;
+    }
+}
@@ -0,0 +1,307 @@
+package br.com.dti.msa.repository;
+
+import br.com.dti.msa.model.MetricSample;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fila de gravação tardia (write-behind) do histórico numérico.
+ *
+ * O coletor só anexa as amostras ao WAL local ({@link MetricSampleJournal}) e as coloca em uma
+ * fila limitada; uma thread própria ('msa-history-writer') grava em lotes grandes no banco pelo
+ * {@link MetricHistoryBatchWriter}, tentando de novo (com espera crescente) se o MySQL falhar.
+ * Assim a duração do ciclo não depende da latência do banco e um soluço do MySQL não perde dados.
+ *
+ * O WAL é esvaziado quando tudo o que foi anexado está no banco. Se a fila encher, as amostras
+ * excedentes ficam só no WAL e são regravadas a partir dele quando a fila esvaziar; o mesmo
+ * acontece na inicialização, com o que sobrou de uma execução anterior. A gravação é idempotente
+ * (INSERT IGNORE), então regravar uma amostra que já estava no banco não duplica nada.
+ */
+@Component
+public class MetricHistoryIngestionQueue {
+
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
+    private final MetricHistoryBatchWriter historyWriter;
+    private final BlockingQueue<MetricSample> queue;
+
+    @Value("${msa.history.wal.enabled:true}")
+    private boolean walEnabled;
+
+    @Value("${msa.history.wal.path:data/metric-history.wal}")
+    private String walPath;
+
+    @Value("${msa.history.wal.fsync:true}")
+    private boolean walFsync;
+
+    @Value("${msa.history.queue.max-batch:5000}")
+    private int maxBatch;
+
+    @Value("${msa.history.queue.linger-ms:200}")
+    private long lingerMillis;
+
+    @Value("${msa.history.queue.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    private MetricSampleJournal journal;
+    private Thread writerThread;
+    private volatile boolean accepting = true;
+    private volatile long shutdownDeadline = Long.MAX_VALUE;
+
+    // Protege a dupla "anexa ao WAL + enfileira" contra o esvaziamento do WAL
+    private final Object journalLock = new Object();
+
+    // Há amostras no WAL que não estão na fila (fila cheia ou lote abandonado): regravar a partir do arquivo
+    private boolean journalPending;
+    private final AtomicLong journalPendingEpoch = new AtomicLong();
+
+    private final Counter overflowed;
+    private final Counter replayed;
+    private final Counter retries;
+
+    public MetricHistoryIngestionQueue(MetricHistoryBatchWriter historyWriter, MeterRegistry meterRegistry,
+                                       @Value("${msa.history.queue.capacity:100000}") int capacity) {
+        this.historyWriter = historyWriter;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.overflowed = Counter.builder("msa.history.queue.overflow")
+                .description("Amostras que não couberam na fila e ficaram só no WAL")
+                .register(meterRegistry);
+        this.replayed = Counter.builder("msa.history.wal.replayed")
+                .description("Amostras regravadas a partir do WAL")
+                .register(meterRegistry);
+        this.retries = Counter.builder("msa.history.write.retries")
+                .description("Novas tentativas de gravação de um lote após falha do banco")
+                .register(meterRegistry);
+        Gauge.builder("msa.history.queue.size", queue, BlockingQueue::size)
+                .description("Amostras aguardando gravação em metric_history")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (walEnabled) {
+            try {
+                journal = new MetricSampleJournal(Path.of(walPath), walFsync);
+                // O que sobrou de uma execução anterior é regravado pela thread de gravação
+                journalPending = journal.size() > 0;
+            } catch (IOException e) {
+                System.err.println("Não foi possível abrir o WAL de histórico em " + walPath + ": " + e.getMessage()
+                        + ". Seguindo sem WAL.");
+            }
+        }
+        writerThread = new Thread(this::runWriter, "msa-history-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Registra as amostras para gravação. Não acessa o banco: anexa ao WAL e enfileira.
+     */
+    public void enqueue(List<MetricSample> samples) {
+        if (samples == null || samples.isEmpty()) return;
+
+        synchronized (journalLock) {
+            boolean journaled = appendToJournal(samples);
+            if (!accepting) {
+                // Desligando: o que chegar agora fica só no WAL, para a próxima inicialização
+                return;
+            }
+            int dropped = 0;
+            for (MetricSample sample : samples) {
+                if (!queue.offer(sample)) dropped++;
+            }
+            if (dropped > 0) {
+                overflowed.increment(dropped);
+                if (journaled) {
+                    markJournalPending();
+                    System.err.println("Fila de histórico cheia: " + dropped + " amostras ficam no WAL até a fila esvaziar.");
+                } else {
+                    System.err.println("Fila de histórico cheia e sem WAL: " + dropped + " amostras descartadas.");
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private boolean appendToJournal(List<MetricSample> samples) {
+        if (journal == null) return false;
+        try {
+            journal.append(samples);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Falha ao anexar " + samples.size() + " amostras ao WAL de histórico: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ===================================================================
+    // THREAD DE GRAVAÇÃO
+    // ===================================================================
+
+    private void runWriter() {
+        List<MetricSample> batch = new ArrayList<>();
+        while (accepting || !queue.isEmpty()) {
+            try {
+                if (isJournalPending() && queue.isEmpty()) {
+                    replayJournal();
+                }
+
+                MetricSample first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - batch.size());
+                if (batch.size() < maxBatch && lingerMillis > 0 && accepting) {
+                    // Espera um pouco para juntar as amostras de outros hosts em um lote maior
+                    Thread.sleep(lingerMillis);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+
+                if (!writeWithRetry(batch)) {
+                    // Desligando com o banco fora: o lote e o resto da fila ficam no WAL para a próxima inicialização
+                    break;
+                }
+                batch.clear();
+                checkpoint();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!batch.isEmpty() || !queue.isEmpty()) {
+            markJournalPending();
+        }
+    }
+
+    /**
+     * Grava o lote, tentando de novo até conseguir. Só desiste durante o desligamento, depois do prazo.
+     */
+    private boolean writeWithRetry(List<MetricSample> batch) throws InterruptedException {
+        long backoff = 1_000;
+        while (true) {
+            try {
+                historyWriter.write(batch);
+                return true;
+            } catch (Exception e) {
+                if (System.currentTimeMillis() >= shutdownDeadline) {
+                    System.err.println("Desligando sem banco: " + batch.size() + " amostras mantidas no WAL.");
+                    return false;
+                }
+                retries.increment();
+                System.err.println("Falha ao gravar " + batch.size() + " amostras de histórico (nova tentativa em "
+                        + backoff + " ms): " + e.getMessage());
+                Thread.sleep(Math.min(backoff, Math.max(0, shutdownDeadline - System.currentTimeMillis())));
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Regrava todo o conteúdo do WAL. Chamado na inicialização e depois de um estouro da fila.
+     *
+     * O arquivo é lido em páginas de 'max-batch' amostras: depois de uma longa queda do banco o WAL
+     * pode ser bem maior que a fila, e só uma página fica em memória por vez.
+     */
+    private void replayJournal() throws InterruptedException {
+        long epoch = journalPendingEpoch.get();
+        System.out.println("Regravando amostras de histórico a partir do WAL " + journal.path());
+        long position = 0;
+        long total = 0;
+        while (true) {
+            List<MetricSample> page = new ArrayList<>();
+            try {
+                position = journal.read(position, maxBatch, page);
+            } catch (IOException e) {
+                System.err.println("Falha ao ler o WAL de histórico " + journal.path() + ": " + e.getMessage());
+                return;
+            }
+            if (page.isEmpty()) break;
+            if (!writeWithRetry(page)) return;
+            replayed.increment(page.size());
+            total += page.size();
+        }
+        System.out.println(total + " amostras de histórico regravadas a partir do WAL.");
+
+        synchronized (journalLock) {
+            // Um novo estouro durante a regravação exige outra passada
+            if (journalPendingEpoch.get() == epoch) {
+                journalPending = false;
+            }
+        }
+        checkpoint();
+    }
+
+    /**
+     * Esvazia o WAL quando tudo o que foi anexado já está no banco: fila vazia, nenhum lote
+     * em andamento (só a própria thread de gravação chama aqui) e nada pendente só no arquivo.
+     */
+    private void checkpoint() {
+        if (journal == null) return;
+        synchronized (journalLock) {
+            if (!queue.isEmpty() || journalPending) return;
+            try {
+                journal.truncate();
+            } catch (IOException e) {
+                System.err.println("Falha ao esvaziar o WAL de histórico: " + e.getMessage());
+            }
+        }
+    }
+
+    private void markJournalPending() {
+        synchronized (journalLock) {
+            journalPending = journal != null;
+            journalPendingEpoch.incrementAndGet();
+        }
+    }
+
+    private boolean isJournalPending() {
+        synchronized (journalLock) {
+            return journalPending;
+        }
+    }
+
+    /**
+     * Para de aceitar amostras e espera a fila esvaziar (até 'msa.history.queue.shutdown-timeout-seconds').
+     * O que não for gravado a tempo continua no WAL.
+     */
+    @PreDestroy
+    public void shutdown() {
+        System.out.println("Esvaziando a fila de histórico (" + queue.size() + " amostras)...");
+        shutdownDeadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds);
+        synchronized (journalLock) {
+            accepting = false;
+        }
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds) + 1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Falha ao fechar o WAL de histórico: " + e.getMessage());
+            }
+        }
+    }
+}
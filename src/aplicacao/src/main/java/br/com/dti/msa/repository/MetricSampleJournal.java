@@ -0,0 +1,167 @@
+package br.com.dti.msa.repository;
+
+import br.com.dti.msa.model.MetricSample;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Arquivo local somente-anexação (write-ahead log) com as amostras ainda não gravadas no banco.
+ *
+ * Cada amostra é um registro de tamanho fixo: hostId, metricId, timestamp (micros), valor e
+ * um CRC32 do registro. Um registro incompleto ou com CRC errado no fim do arquivo (queda no
+ * meio da escrita) encerra a leitura. O timestamp é gravado como hora local "ingênua" (UTC como
+ * referência só para a conversão), então volta exatamente igual, independente do fuso.
+ */
+final class MetricSampleJournal implements Closeable {
+
+    static final int RECORD_BYTES = Long.BYTES * 3 + Double.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final boolean fsync;
+    private final FileChannel channel;
+
+    MetricSampleJournal(Path path, boolean fsync) throws IOException {
+        this.path = path;
+        this.fsync = fsync;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // Corta um registro incompleto/corrompido deixado por uma queda; senão os próximos ficariam depois do lixo
+        long validBytes = scan(0, Integer.MAX_VALUE, null);
+        if (validBytes < channel.size()) {
+            channel.truncate(validBytes);
+        }
+        this.channel.position(validBytes);
+    }
+
+    /**
+     * Anexa as amostras ao fim do arquivo e, com fsync ligado, força a gravação no disco.
+     */
+    synchronized void append(List<MetricSample> samples) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(samples.size() * RECORD_BYTES);
+        CRC32 crc = new CRC32();
+        for (MetricSample sample : samples) {
+            int start = buffer.position();
+            buffer.putLong(sample.hostId());
+            buffer.putLong(sample.metricId());
+            buffer.putLong(toMicros(sample.timestamp()));
+            buffer.putDouble(sample.value());
+            crc.reset();
+            crc.update(buffer.array(), start, RECORD_BYTES - Integer.BYTES);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Lê todas as amostras válidas do arquivo, do início até o primeiro registro incompleto ou corrompido.
+     */
+    synchronized List<MetricSample> readAll() throws IOException {
+        List<MetricSample> samples = new ArrayList<>();
+        scan(0, Integer.MAX_VALUE, samples);
+        return samples;
+    }
+
+    /**
+     * Lê até 'maxRecords' amostras válidas a partir de 'position' (início de um registro) para 'samples'
+     * e retorna a posição logo depois da última lida: a próxima página começa nela.
+     * Permite regravar um WAL grande sem carregá-lo inteiro em memória.
+     */
+    synchronized long read(long position, int maxRecords, List<MetricSample> samples) throws IOException {
+        return scan(position, maxRecords, samples);
+    }
+
+    /**
+     * Percorre até 'maxRecords' registros válidos a partir de 'from', adicionando-os a 'samples' (se informado),
+     * e retorna a posição do fim do trecho válido percorrido.
+     */
+    private long scan(long from, int maxRecords, List<MetricSample> samples) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * Math.max(1, Math.min(maxRecords, 4096)));
+        CRC32 crc = new CRC32();
+        long position = from;
+        long size = channel.size();
+        int remaining = maxRecords;
+
+        while (position < size && remaining > 0) {
+            buffer.clear();
+            buffer.limit(RECORD_BYTES * Math.min(remaining, buffer.capacity() / RECORD_BYTES));
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            buffer.flip();
+            int records = read / RECORD_BYTES;
+            if (records == 0) break; // Registro incompleto no fim do arquivo
+
+            for (int i = 0; i < records; i++) {
+                int start = i * RECORD_BYTES;
+                crc.reset();
+                crc.update(buffer.array(), start, RECORD_BYTES - Integer.BYTES);
+                if (buffer.getInt(start + RECORD_BYTES - Integer.BYTES) != (int) crc.getValue()) {
+                    System.err.println("WAL de histórico corrompido na posição " + (position + start)
+                            + " de " + path + ": " + (size - position - start) + " bytes descartados.");
+                    return position + start;
+                }
+                if (samples == null) continue;
+                samples.add(new MetricSample(
+                        buffer.getLong(start),
+                        buffer.getLong(start + Long.BYTES),
+                        fromMicros(buffer.getLong(start + Long.BYTES * 2)),
+                        buffer.getDouble(start + Long.BYTES * 3)));
+            }
+            position += (long) records * RECORD_BYTES;
+            remaining -= records;
+        }
+        return position;
+    }
+
+    /**
+     * Esvazia o arquivo: tudo o que estava nele já está no banco.
+     */
+    synchronized void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        if (fsync) {
+            channel.force(true);
+        }
+    }
+
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -3,10 +3,13 @@ package br.com.dti.msa.repository;
 import br.com.dti.msa.model.RecentEvents;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface RecentEventsRepository extends JpaRepository<RecentEvents, Long> {
@@ -44,4 +47,33 @@ public interface RecentEventsRepository extends JpaRepository<RecentEvents, Long
         @Param("severities") List<String> severities, 
         Pageable pageable
     );
-}
\ No newline at end of file
+
+    /**
+     * Dos eventids informados, retorna os que já estão gravados.
+     * Usado pela sincronização para não inserir o mesmo evento duas vezes.
+     */
+    @Query("SELECT re.zabbixEventId FROM RecentEvents re WHERE re.zabbixEventId IN :eventIds")
+    List<Long> findExistingZabbixEventIds(@Param("eventIds") Collection<Long> eventIds);
+
+    /**
+     * Eventids dos problemas ainda em aberto, para verificar se foram resolvidos no Zabbix.
+     */
+    @Query("SELECT re.zabbixEventId FROM RecentEvents re WHERE re.resolved = false AND re.zabbixEventId IS NOT NULL")
+    List<Long> findOpenZabbixEventIds();
+
+    /**
+     * Marca um evento como resolvido.
+     */
+    @Modifying
+    @Query("UPDATE RecentEvents re SET re.resolved = true, re.resolvedAt = :resolvedAt " +
+           "WHERE re.zabbixEventId = :eventId AND re.resolved = false")
+    int markResolved(@Param("eventId") Long eventId, @Param("resolvedAt") LocalDateTime resolvedAt);
+
+    /**
+     * Apaga os eventos já resolvidos antes da data de corte (retenção da linha do tempo).
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RecentEvents re WHERE re.resolved = true AND re.resolvedAt < :cutoff")
+    int deleteResolvedOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,22 @@
+package br.com.dti.msa.repository;
+
+import br.com.dti.msa.model.ZabbixItemRef;
+import br.com.dti.msa.model.ZabbixItemRefId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ZabbixItemRefRepository extends JpaRepository<ZabbixItemRef, ZabbixItemRefId> {
+
+    /**
+     * Busca todas as resoluções de itens de um host do Zabbix.
+     */
+    List<ZabbixItemRef> findByZabbixHostId(Long zabbixHostId);
+
+    /**
+     * Remove todas as resoluções de um host do Zabbix (ex: host excluído ou Zabbix ID alterado).
+     */
+    @Transactional
+    void deleteByZabbixHostId(Long zabbixHostId);
+}
@@ -2,6 +2,7 @@ package br.com.dti.msa.scheduler;
 
 import br.com.dti.msa.model.MetricHistory;
 import br.com.dti.msa.repository.MetricHistoryRepository;
+import br.com.dti.msa.repository.RecentEventsRepository;
 import br.com.dti.msa.repository.ZabbixConnectionStatusRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,14 +16,22 @@ public class CleanupScheduler {
 
     @Autowired private MetricHistoryRepository metricHistoryRepository;
     @Autowired private ZabbixConnectionStatusRepository zabbixStatusRepository;
+    @Autowired private RecentEventsRepository recentEventsRepository;
+    @Autowired private CollectorCluster cluster;
 
     // Define o número máximo de registros a manter por métrica/host
     private static final int MAX_RECORDS_PER_METRIC = 2880;
 
-    // Executa a cada hora, no minuto 0.
+    // Por quantos dias um evento já resolvido permanece na linha do tempo
+    private static final int RESOLVED_EVENT_RETENTION_DAYS = 7;
+
+    // Executa a cada hora, no minuto 0, no agendador de manutenção (nunca na thread da coleta).
     // Ex: "0 0 4 * * ?" para rodar todo dia às 4 da manhã.
-    @Scheduled(cron = "0 0 * * * ?") 
+    @Scheduled(cron = "0 0 * * * ?", scheduler = "maintenanceScheduler")
     public void cleanupOldData() {
+        // Com várias instâncias, só o nó líder faz a limpeza
+        if (!cluster.isLeader()) return;
+
         System.out.println("--- INICIANDO JOB DE LIMPEZA DE DADOS ANTIGOS ---");
 
         // --- TAREFA 1: Limpar Histórico de Métricas (Limpeza Rápida por Tempo) ---
@@ -39,6 +48,11 @@ public class CleanupScheduler {
         System.out.println("Garantindo que nenhuma métrica tenha mais que " + MAX_RECORDS_PER_METRIC + " registros...");
         metricHistoryRepository.enforceCountBasedRetention(MAX_RECORDS_PER_METRIC);
 
+        // --- TAREFA 4: Limpar Eventos Resolvidos (Linha do Tempo de Eventos) ---
+        LocalDateTime eventCutoffDate = LocalDateTime.now().minusDays(RESOLVED_EVENT_RETENTION_DAYS);
+        System.out.println("Apagando eventos resolvidos antes de: " + eventCutoffDate);
+        recentEventsRepository.deleteResolvedOlderThan(eventCutoffDate);
+
         System.out.println("--- JOB DE LIMPEZA FINALIZADO ---");
     }
 }
\ No newline at end of file
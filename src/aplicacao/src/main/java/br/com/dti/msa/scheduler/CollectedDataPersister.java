@@ -0,0 +1,102 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.integration.zabbix.dto.ZabbixEventDTO;
+import br.com.dti.msa.model.EventSyncWatermark;
+import br.com.dti.msa.model.RecentEvents;
+import br.com.dti.msa.repository.EventSyncWatermarkRepository;
+import br.com.dti.msa.repository.HostRepository;
+import br.com.dti.msa.repository.RecentEventsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fase de persistência do coletor.
+ * Cada host é gravado em sua própria transação curta, aberta somente depois que
+ * todas as chamadas ao Zabbix terminaram. Assim nenhuma conexão/lock do banco fica
+ * presa durante a rede, e um host com erro não desfaz os dados dos demais.
+ * Os eventos do Zabbix são gravados à parte, pelo ZabbixEventSynchronizer.
+ * O histórico numérico e os valores de texto não passam por aqui: são gravados em lote
+ * pelo MetricHistoryBatchWriter e pelo MetricCurrentValueWriter.
+ */
+@Component
+public class CollectedDataPersister {
+
+    @Autowired private HostRepository hostRepository;
+    @Autowired private RecentEventsRepository recentEventsRepository;
+    @Autowired private EventSyncWatermarkRepository watermarkRepository;
+
+    @Transactional
+    public void persistHost(HostCollectionOutput output) {
+        // Atualiza apenas as colunas de status: o host carregado pelo coletor está desatualizado
+        // e não pode sobrescrever edições feitas pelo admin durante o ciclo.
+        if (output.status != null) {
+            hostRepository.updateStatus(output.hostId, output.status.status, output.status.description);
+        }
+    }
+
+    /**
+     * Grava o resultado de uma sincronização de eventos: insere os eventos ainda não gravados,
+     * marca os resolvidos e avança o watermark, tudo na mesma transação.
+     *
+     * @return {novos eventos inseridos, eventos marcados como resolvidos}
+     */
+    @Transactional
+    public int[] persistEvents(Map<Long, Long> hostsByZabbixId, List<ZabbixEventDTO> newEvents,
+                               Map<String, Long> recoveryClocks, EventSyncWatermark watermark) {
+        Set<Long> existing = new HashSet<>();
+        if (!newEvents.isEmpty()) {
+            List<Long> ids = newEvents.stream().map(e -> Long.valueOf(e.getEventId())).toList();
+            existing.addAll(recentEventsRepository.findExistingZabbixEventIds(ids));
+        }
+
+        List<RecentEvents> toSave = new ArrayList<>();
+        for (ZabbixEventDTO e : newEvents) {
+            Long eventId = Long.valueOf(e.getEventId());
+            Long hostId = findEventHost(e, hostsByZabbixId);
+            if (hostId == null || !existing.add(eventId)) continue;
+
+            RecentEvents re = new RecentEvents();
+            re.setZabbixEventId(eventId);
+            re.setHost(hostRepository.getReferenceById(hostId)); // Só a FK: sem SELECT do host
+            re.setTimestamp(toLocalDateTime(e.getClock()));
+            re.setSeverity(String.valueOf(e.getSeverity()));
+            re.setName(e.getName());
+            toSave.add(re);
+        }
+        recentEventsRepository.saveAll(toSave);
+
+        int resolved = 0;
+        for (Map.Entry<String, Long> recovery : recoveryClocks.entrySet()) {
+            // Clock 0: o problema não existe mais no Zabbix; considera resolvido agora
+            LocalDateTime resolvedAt = recovery.getValue() > 0 ? toLocalDateTime(recovery.getValue()) : LocalDateTime.now();
+            resolved += recentEventsRepository.markResolved(Long.valueOf(recovery.getKey()), resolvedAt);
+        }
+
+        watermark.setUpdatedAt(LocalDateTime.now());
+        watermarkRepository.save(watermark);
+        return new int[]{toSave.size(), resolved};
+    }
+
+    private Long findEventHost(ZabbixEventDTO event, Map<Long, Long> hostsByZabbixId) {
+        if (event.getHosts() == null) return null;
+        for (ZabbixEventDTO.HostInfo info : event.getHosts()) {
+            Long hostId = hostsByZabbixId.get(Long.valueOf(info.getHostId()));
+            if (hostId != null) return hostId;
+        }
+        return null;
+    }
+
+    private LocalDateTime toLocalDateTime(long epochSeconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds), ZoneId.systemDefault());
+    }
+}
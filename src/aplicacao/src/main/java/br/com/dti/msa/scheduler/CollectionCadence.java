@@ -0,0 +1,193 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.scheduler.CollectionPlan.HostPlan;
+import br.com.dti.msa.scheduler.CollectionPlan.ItemPlan;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decide, a cada ciclo, quais chaves Zabbix de cada host estão vencidas.
+ *
+ * Cada série (host, métrica) tem o intervalo de coleta da métrica ('metrics.collect_interval_seconds')
+ * ou o do host ('host_metric_config.collect_interval_seconds', se definido). As séries ficam em uma
+ * {@link TimingWheel} com ticks de 1 segundo; a cada ciclo a roda avança e as séries vencidas
+ * viram as chaves a buscar. Métricas lentas (ex: 'os-nome') ficam fora da maioria dos ciclos.
+ *
+ * No modo escalonado ('msa.collector.stagger.enabled'), cada host recebe um deslocamento fixo
+ * dentro de 'msa.collector.cycle-interval-seconds', derivado do hash do seu ID, e suas séries vencem
+ * nesse segundo. Com ciclos curtos ('msa.collector.stagger.tick-seconds'), a frota é buscada
+ * aos poucos ao longo do minuto em vez de toda de uma vez.
+ */
+@Component
+public class CollectionCadence {
+
+    // Tolerância para que uma série que vence logo depois do ciclo não espere o ciclo seguinte
+    private static final long LOOKAHEAD_TICKS = 5;
+
+    private static final class Series {
+        final String key;
+        final Long hostId;
+        final String zabbixKey;
+        final int intervalSeconds;
+        long nextDue;
+
+        Series(String key, Long hostId, String zabbixKey, int intervalSeconds) {
+            this.key = key;
+            this.hostId = hostId;
+            this.zabbixKey = zabbixKey;
+            this.intervalSeconds = intervalSeconds;
+        }
+    }
+
+    @Value("${msa.collector.cadence.wheel-slots:512}")
+    private int wheelSlots;
+
+    @Value("${msa.collector.stagger.enabled:false}")
+    private boolean staggered;
+
+    @Value("${msa.collector.stagger.tick-seconds:5}")
+    private int tickSeconds;
+
+    @Value("${msa.collector.cycle-interval-seconds:60}")
+    private int spreadWindowSeconds;
+
+    // Chave: "<hostId>|<metricId>"
+    private final Map<String, Series> series = new HashMap<>();
+    private TimingWheel<Series> wheel;
+
+    // Hosts buscados em cada um dos ciclos da última janela, para medir o espalhamento obtido
+    private final Deque<Integer> recentDispatch = new ArrayDeque<>();
+    private volatile int peakHostsPerCycle;
+    private volatile double spreadRatio = 1.0;
+    private final DistributionSummary hostsPerCycle;
+
+    public CollectionCadence(MeterRegistry meterRegistry) {
+        this.hostsPerCycle = DistributionSummary.builder("msa.collector.hosts.dispatched")
+                .description("Hosts com chaves vencidas em cada ciclo")
+                .register(meterRegistry);
+        Gauge.builder("msa.collector.stagger.peak.hosts", this, c -> c.peakHostsPerCycle)
+                .description("Maior número de hosts buscados em um ciclo na última janela")
+                .register(meterRegistry);
+        Gauge.builder("msa.collector.stagger.spread.ratio", this, c -> c.spreadRatio)
+                .description("Média / pico de hosts por ciclo na última janela (1.0 = carga uniforme)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna as chaves Zabbix vencidas de cada host (hostId -> chaves) e reagenda as séries.
+     * Séries novas, ou cujo intervalo ou chave mudou, vencem imediatamente
+     * (no modo escalonado, no próximo segundo do deslocamento do host).
+     */
+    public Map<Long, Set<String>> dueKeys(Iterable<HostPlan> hosts) {
+        return dueKeys(hosts, System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * {@link #dueKeys(Iterable)} no tick (segundo) informado.
+     */
+    synchronized Map<Long, Set<String>> dueKeys(Iterable<HostPlan> hosts, long nowTick) {
+        long horizon = nowTick + LOOKAHEAD_TICKS;
+        if (wheel == null) {
+            wheel = new TimingWheel<>(wheelSlots, nowTick - 1);
+        }
+
+        Map<Long, Set<String>> due = new HashMap<>();
+        Set<String> configured = new HashSet<>();
+
+        for (HostPlan host : hosts) {
+            for (ItemPlan item : host.items()) {
+                String zabbixKey = item.zabbixKey();
+                String key = item.seriesKey();
+                int interval = item.intervalSeconds();
+                configured.add(key);
+
+                Series current = series.get(key);
+                if (current == null || current.intervalSeconds != interval || !current.zabbixKey.equals(zabbixKey)) {
+                    Series fresh = new Series(key, host.hostId(), zabbixKey, interval);
+                    series.put(key, fresh); // Uma entrada antiga na roda fica órfã e é descartada ao vencer
+                    long firstDue = alignToHost(host.hostId(), nowTick);
+                    if (firstDue <= horizon) {
+                        markDue(fresh, firstDue, nowTick, due);
+                    } else {
+                        fresh.nextDue = firstDue;
+                        wheel.schedule(fresh, firstDue);
+                    }
+                }
+            }
+        }
+        series.keySet().retainAll(configured);
+
+        for (TimingWheel.Timeout<Series> timeout : wheel.advanceTo(horizon)) {
+            Series s = timeout.item();
+            boolean stillActive = series.get(s.key) == s && s.nextDue == timeout.dueTick();
+            if (stillActive) {
+                markDue(s, timeout.dueTick(), nowTick, due);
+            }
+        }
+        recordDispatch(due.size());
+        return due;
+    }
+
+    /**
+     * Número de séries agendadas.
+     */
+    public synchronized int scheduledSeries() {
+        return series.size();
+    }
+
+    /**
+     * Espalhamento obtido na última janela: média / pico de hosts por ciclo.
+     */
+    public double spreadRatio() {
+        return spreadRatio;
+    }
+
+    public int peakHostsPerCycle() {
+        return peakHostsPerCycle;
+    }
+
+    private void markDue(Series s, long dueTick, long nowTick, Map<Long, Set<String>> due) {
+        due.computeIfAbsent(s.hostId, id -> new HashSet<>()).add(s.zabbixKey);
+
+        // Mantém a cadência a partir do vencimento (sem acumular atraso); se ficou para trás, recomeça de agora
+        long next = dueTick + s.intervalSeconds;
+        if (next <= nowTick + LOOKAHEAD_TICKS) {
+            next = alignToHost(s.hostId, nowTick + s.intervalSeconds);
+        }
+        s.nextDue = next;
+        wheel.schedule(s, next);
+    }
+
+    /**
+     * Primeiro tick a partir de 'tick' que cai no deslocamento do host dentro da janela.
+     * Fora do modo escalonado, o próprio tick.
+     */
+    private long alignToHost(Long hostId, long tick) {
+        if (!staggered || spreadWindowSeconds <= 1) return tick;
+        long offset = Math.floorMod(ConsistentHashRing.mix(hostId), (long) spreadWindowSeconds);
+        return tick + Math.floorMod(offset - tick, (long) spreadWindowSeconds);
+    }
+
+    private void recordDispatch(int hosts) {
+        hostsPerCycle.record(hosts);
+        int windowCycles = staggered ? Math.max(1, spreadWindowSeconds / Math.max(1, tickSeconds)) : 1;
+        recentDispatch.addLast(hosts);
+        while (recentDispatch.size() > windowCycles) {
+            recentDispatch.removeFirst();
+        }
+        int peak = recentDispatch.stream().mapToInt(Integer::intValue).max().orElse(0);
+        double mean = recentDispatch.stream().mapToInt(Integer::intValue).average().orElse(0);
+        peakHostsPerCycle = peak;
+        spreadRatio = (peak > 0) ? mean / peak : 1.0;
+    }
+}
@@ -0,0 +1,144 @@
+package br.com.dti.msa.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Garante no máximo UM ciclo de coleta ativo por nó.
+ *
+ * O agendador apenas chama {@link #trigger()}; o ciclo roda em uma thread própria
+ * ('msa-collector'), então um ciclo lento não prende a thread do agendador nem
+ * faz execuções se empilharem. Quando um gatilho chega com um ciclo ainda rodando
+ * (overrun), a política 'msa.collector.overrun-policy' decide o que fazer:
+ * <ul>
+ *   <li>SKIP: descarta o gatilho;</li>
+ *   <li>COALESCE: roda UM ciclo extra logo após o atual, não importa quantos gatilhos chegaram;</li>
+ *   <li>CATCH_UP: roda um ciclo extra por gatilho perdido, até 'msa.collector.max-catch-up'.</li>
+ * </ul>
+ */
+@Component
+public class CollectionCoordinator {
+
+    public enum OverrunPolicy { SKIP, COALESCE, CATCH_UP }
+
+    private final MetricCollectorScheduler collector;
+    private final ExecutorService runner;
+
+    @Value("${msa.collector.overrun-policy:COALESCE}")
+    private OverrunPolicy overrunPolicy;
+
+    @Value("${msa.collector.max-catch-up:3}")
+    private int maxCatchUp;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger pendingCycles = new AtomicInteger(0);
+    private final AtomicLong lastCycleStart = new AtomicLong(0);
+    private final AtomicLong lastCycleEnd = new AtomicLong(0);
+
+    private final Timer cycleTimer;
+    private final Counter skippedCycles;
+    private final Counter extraCycles;
+
+    public CollectionCoordinator(MetricCollectorScheduler collector, MeterRegistry meterRegistry) {
+        this.collector = collector;
+        // Thread única e exclusiva do ciclo, instrumentada como o executor 'collector'
+        this.runner = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newSingleThreadExecutor(r -> new Thread(r, "msa-collector")), "collector");
+        this.cycleTimer = Timer.builder("msa.collector.cycle")
+                .description("Duração de cada ciclo de coleta")
+                .register(meterRegistry);
+        this.skippedCycles = Counter.builder("msa.collector.cycles.skipped")
+                .description("Gatilhos que chegaram com um ciclo ainda em execução")
+                .register(meterRegistry);
+        this.extraCycles = Counter.builder("msa.collector.cycles.overrun.replayed")
+                .description("Ciclos extras executados por COALESCE/CATCH_UP")
+                .register(meterRegistry);
+        Gauge.builder("msa.collector.cycle.running", running, r -> r.get() ? 1 : 0)
+                .description("1 se há um ciclo de coleta em execução")
+                .register(meterRegistry);
+        Gauge.builder("msa.collector.cycle.last.start", lastCycleStart, AtomicLong::get)
+                .description("Início do último ciclo (epoch em segundos)")
+                .register(meterRegistry);
+        Gauge.builder("msa.collector.cycle.last.end", lastCycleEnd, AtomicLong::get)
+                .description("Fim do último ciclo (epoch em segundos)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pedido de um ciclo de coleta. Não bloqueia: inicia o ciclo em segundo plano
+     * ou, se já houver um rodando, aplica a política de overrun.
+     */
+    public void trigger() {
+        if (running.compareAndSet(false, true)) {
+            runner.execute(this::runCycles);
+            return;
+        }
+
+        skippedCycles.increment();
+        switch (overrunPolicy) {
+            case SKIP -> System.out.println("Ciclo de coleta anterior ainda em execução. Gatilho descartado (SKIP).");
+            case COALESCE -> {
+                pendingCycles.set(1);
+                System.out.println("Ciclo de coleta anterior ainda em execução. Um novo ciclo rodará em seguida (COALESCE).");
+            }
+            case CATCH_UP -> {
+                int pending = pendingCycles.updateAndGet(p -> Math.min(p + 1, Math.max(1, maxCatchUp)));
+                System.out.println("Ciclo de coleta anterior ainda em execução. " + pending + " ciclo(s) pendente(s) (CATCH_UP).");
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void runCycles() {
+        do {
+            try {
+                runOneCycle();
+                while (pendingCycles.getAndUpdate(p -> Math.max(p - 1, 0)) > 0) {
+                    extraCycles.increment();
+                    runOneCycle();
+                }
+            } finally {
+                running.set(false);
+            }
+            // Um gatilho pode ter deixado um ciclo pendente entre a última verificação e o set(false)
+        } while (pendingCycles.get() > 0 && running.compareAndSet(false, true));
+    }
+
+    private void runOneCycle() {
+        lastCycleStart.set(Instant.now().getEpochSecond());
+        long start = System.nanoTime();
+        try {
+            collector.collectAllMetrics();
+        } catch (Exception e) {
+            System.err.println("Erro inesperado no ciclo de coleta: " + e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            cycleTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            lastCycleEnd.set(Instant.now().getEpochSecond());
+            System.out.println("Ciclo de coleta concluído em " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms ("
+                    + (long) skippedCycles.count() + " gatilhos em overrun até agora).");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+}
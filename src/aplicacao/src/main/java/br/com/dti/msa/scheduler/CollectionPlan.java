@@ -0,0 +1,74 @@
+package br.com.dti.msa.scheduler;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plano de coleta imutável: o que coletar de cada host, já reduzido a IDs, chaves Zabbix
+ * e o parser de cada item. É montado a partir das entidades apenas quando a configuração
+ * muda (ver {@link CollectionPlanHolder}) e compartilhado sem cópia entre os ciclos.
+ */
+public final class CollectionPlan {
+
+    /**
+     * Um item a coletar: uma métrica configurada no host.
+     *
+     * @param seriesKey chave "<hostId>|<metricId>" da série, pré-calculada
+     */
+    public record ItemPlan(long metricId, String metricName, String zabbixKey, int intervalSeconds,
+                           ValueParser parser, String seriesKey) {
+    }
+
+    /**
+     * Um host a coletar.
+     *
+     * @param zabbixKeys     as chaves Zabbix coletáveis do host (sem 'zabbix_api')
+     * @param monitorsEvents se o host monitora 'eventos-recentes'
+     * @param evaluator      as regras de status já compiladas
+     */
+    public record HostPlan(long hostId, Long zabbixId, String name, List<ItemPlan> items, Set<String> zabbixKeys,
+                           boolean monitorsEvents, HostStatusEvaluator evaluator) {
+    }
+
+    static final CollectionPlan EMPTY = new CollectionPlan(0, List.of(), Instant.EPOCH);
+
+    private final long version;
+    private final List<HostPlan> hosts;
+    private final Map<Long, HostPlan> hostsById;
+    private final Instant builtAt;
+
+    CollectionPlan(long version, List<HostPlan> hosts, Instant builtAt) {
+        this.version = version;
+        this.hosts = List.copyOf(hosts);
+        this.builtAt = builtAt;
+        Map<Long, HostPlan> byId = new HashMap<>();
+        this.hosts.forEach(host -> byId.put(host.hostId(), host));
+        this.hostsById = Map.copyOf(byId);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public List<HostPlan> hosts() {
+        return hosts;
+    }
+
+    /**
+     * O plano de um host pelo ID, ou null se ele não faz parte deste plano.
+     */
+    public HostPlan host(long hostId) {
+        return hostsById.get(hostId);
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    public int itemCount() {
+        return hosts.stream().mapToInt(h -> h.items().size()).sum();
+    }
+}
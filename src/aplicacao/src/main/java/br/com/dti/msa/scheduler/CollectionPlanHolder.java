@@ -0,0 +1,121 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.model.Host;
+import br.com.dti.msa.model.HostMetricConfig;
+import br.com.dti.msa.repository.HostRepository;
+import br.com.dti.msa.scheduler.CollectionPlan.HostPlan;
+import br.com.dti.msa.scheduler.CollectionPlan.ItemPlan;
+import br.com.dti.msa.service.HostChangedEvent;
+import br.com.dti.msa.service.ZabbixItemResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantém o {@link CollectionPlan} atual e o troca atomicamente quando a configuração muda.
+ *
+ * O plano é remontado (uma consulta ao catálogo) apenas quando o {@link br.com.dti.msa.service.HostService}
+ * publica um {@link HostChangedEvent} — depois do commit — ou quando passa de
+ * 'msa.collector.plan.max-age-seconds', o que cobre alterações feitas por outra instância.
+ * Nos demais ciclos o coletor trabalha só com o plano em memória.
+ */
+@Component
+public class CollectionPlanHolder {
+
+    @Autowired private HostRepository hostRepository;
+    @Autowired private ZabbixItemResolver itemResolver;
+    @Autowired private Environment environment;
+
+    @Value("${msa.collector.plan.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    private final AtomicReference<CollectionPlan> current = new AtomicReference<>(CollectionPlan.EMPTY);
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+
+    /**
+     * O plano vigente, remontado antes se estiver desatualizado.
+     */
+    public CollectionPlan current() {
+        CollectionPlan plan = current.get();
+        boolean expired = Duration.between(plan.builtAt(), Instant.now()).getSeconds() >= maxAgeSeconds;
+        if (stale.get() || expired) {
+            rebuild();
+        }
+        return current.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHostChanged(HostChangedEvent event) {
+        System.out.println("Host " + event.hostId() + " " + event.type() + ": o plano de coleta será remontado.");
+        stale.set(true);
+    }
+
+    private synchronized void rebuild() {
+        // Marca antes de ler: uma alteração durante a montagem gera uma nova remontagem
+        stale.set(false);
+        try {
+            List<HostPlan> hosts = new ArrayList<>();
+            for (Host host : hostRepository.findAllWithMetrics()) {
+                hosts.add(planFor(host));
+            }
+            CollectionPlan plan = new CollectionPlan(current.get().version() + 1, hosts, Instant.now());
+            current.set(plan);
+            System.out.println("Plano de coleta v" + plan.version() + ": " + hosts.size() + " hosts, " + plan.itemCount() + " itens.");
+        } catch (Exception e) {
+            // Mantém o plano anterior e tenta de novo no próximo ciclo
+            stale.set(true);
+            System.err.println("Falha ao montar o plano de coleta: " + e.getMessage());
+        }
+    }
+
+    private HostPlan planFor(Host host) {
+        List<ItemPlan> items = new ArrayList<>();
+        Set<String> zabbixKeys = new LinkedHashSet<>();
+        boolean monitorsEvents = false;
+
+        for (HostMetricConfig config : host.getMetricConfigs()) {
+            String metricKey = config.getMetric().getMetricKey();
+            String zabbixKey = config.getZabbixKey();
+            if (metricKey.equals("eventos-recentes")) monitorsEvents = true;
+            if (zabbixKey == null || zabbixKey.equalsIgnoreCase("zabbix_api")) continue;
+
+            Integer valueType = itemResolver.find(host.getZabbixId(), zabbixKey).map(ref -> ref.getValueType()).orElse(null);
+            Long metricId = config.getMetric().getId();
+            items.add(new ItemPlan(metricId, config.getMetric().getName(), zabbixKey, config.effectiveIntervalSeconds(),
+                    ValueParser.forMetric(metricKey, valueType), host.getId() + "|" + metricId));
+            zabbixKeys.add(zabbixKey);
+        }
+
+        return new HostPlan(host.getId(), host.getZabbixId(), host.getName(), List.copyOf(items), Set.copyOf(zabbixKeys),
+                monitorsEvents, HostStatusEvaluator.compile(host, thresholdsFor(host)));
+    }
+
+    /**
+     * Limites de CPU/RAM do host: 'msa.status.<tipo>.*' (ex: msa.status.database.cpu-max-percent),
+     * senão 'msa.status.*', senão os padrões (90% de CPU, 10% de RAM livre).
+     */
+    StatusThresholds thresholdsFor(Host host) {
+        if (environment == null) return StatusThresholds.DEFAULT;
+        String type = (host.getType() != null) ? host.getType().toLowerCase(Locale.ROOT) : "";
+        return new StatusThresholds(
+            threshold(type, "cpu-max-percent", StatusThresholds.DEFAULT.cpuMaxPercent()),
+            threshold(type, "ram-min-free-percent", StatusThresholds.DEFAULT.ramMinFreePercent()));
+    }
+
+    private double threshold(String type, String name, double defaultValue) {
+        Double global = environment.getProperty("msa.status." + name, Double.class, defaultValue);
+        return environment.getProperty("msa.status." + type + "." + name, Double.class, global);
+    }
+}
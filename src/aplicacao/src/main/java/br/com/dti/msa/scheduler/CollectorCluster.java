@@ -0,0 +1,147 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.repository.CollectorNodeRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Divide os hosts entre as instâncias do MSA que compartilham o mesmo banco.
+ *
+ * Cada nó mantém um lease em 'collector_nodes' (heartbeat a cada 'msa.cluster.heartbeat-interval-ms').
+ * Os nós com lease válido formam um anel de hash consistente sobre hosts.id, e cada nó só coleta
+ * os hosts que caem no seu trecho. Quando um nó entra ou tem o lease vencido, o anel é refeito
+ * e apenas os hosts afetados mudam de dono. O nó de menor ID é o líder, responsável pelas
+ * tarefas da frota inteira (sincronização de eventos, limpeza).
+ *
+ * Um nó só assume hosts (e a liderança) com o próprio lease válido: nada antes do primeiro
+ * heartbeat bem-sucedido, e nada depois que o lease vence sem renovação (banco fora do ar),
+ * quando os outros nós já o consideram morto e redistribuíram os hosts dele.
+ *
+ * Durante uma troca de dono, dois nós podem coletar o mesmo host por um ciclo; o histórico
+ * usa o lastclock do Zabbix e INSERT IGNORE, então a amostra não é duplicada.
+ */
+@Component
+public class CollectorCluster {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    @Autowired private CollectorNodeRepository nodeRepository;
+
+    @Value("${msa.cluster.enabled:true}")
+    private boolean clusterEnabled;
+
+    @Value("${msa.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${msa.cluster.lease-ttl-seconds:30}")
+    private long leaseTtlSeconds;
+
+    private volatile String nodeId;
+    private volatile List<String> liveNodes = List.of();
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(List.of(), VIRTUAL_NODES);
+    // Momento (nanoTime) do último heartbeat bem-sucedido; null = nenhum ainda
+    private volatile Long leaseRenewedAt;
+    private LongSupplier clock = System::nanoTime;
+
+    /**
+     * Renova o lease deste nó e atualiza a lista de nós vivos.
+     */
+    @Scheduled(fixedRateString = "${msa.cluster.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        if (!clusterEnabled) return;
+        try {
+            refreshMembership();
+        } catch (Exception e) {
+            // Sem acesso ao banco: mantém a última visão do anel enquanto o lease não vencer
+            System.err.println("Falha no heartbeat do nó " + nodeId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Indica se este nó é o responsável por coletar o host.
+     * Sem lease válido (antes do primeiro heartbeat ou com ele vencido), não assume nenhum.
+     */
+    public boolean owns(Long hostId) {
+        if (!clusterEnabled) return true;
+        if (!holdsLease()) return false;
+        String owner = ring.ownerOf(hostId);
+        return owner != null && owner.equals(nodeId());
+    }
+
+    /**
+     * Indica se este nó é o líder (menor ID entre os nós vivos). Sem lease válido, não é.
+     */
+    public boolean isLeader() {
+        if (!clusterEnabled) return true;
+        if (!holdsLease()) return false;
+        List<String> nodes = liveNodes;
+        return !nodes.isEmpty() && nodes.get(0).equals(nodeId());
+    }
+
+    private boolean holdsLease() {
+        Long renewedAt = leaseRenewedAt;
+        return renewedAt != null && clock.getAsLong() - renewedAt < TimeUnit.SECONDS.toNanos(leaseTtlSeconds);
+    }
+
+    public String nodeId() {
+        if (nodeId == null) {
+            synchronized (this) {
+                if (nodeId == null) {
+                    nodeId = (configuredNodeId != null && !configuredNodeId.isBlank()) ? configuredNodeId : generateNodeId();
+                }
+            }
+        }
+        return nodeId;
+    }
+
+    public List<String> liveNodes() {
+        return liveNodes;
+    }
+
+    private synchronized void refreshMembership() {
+        // O lease conta a partir de antes do heartbeat, para não durar mais que o registro no banco
+        long renewedAt = clock.getAsLong();
+        nodeRepository.heartbeat(nodeId());
+        List<String> nodes = nodeRepository.findLiveNodeIds(leaseTtlSeconds);
+        if (!nodes.equals(liveNodes)) {
+            System.out.println("Nós do coletor: " + nodes + " (este nó: " + nodeId() + "). Redistribuindo hosts.");
+            liveNodes = List.copyOf(nodes);
+            ring = new ConsistentHashRing(nodes, VIRTUAL_NODES);
+        }
+        leaseRenewedAt = renewedAt;
+        // Registros de nós mortos há muito tempo só ocupam espaço
+        nodeRepository.deleteExpired(leaseTtlSeconds * 10);
+    }
+
+    private String generateNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "msa";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Ao desligar, libera o lease para que os hosts deste nó sejam redistribuídos imediatamente.
+     */
+    @PreDestroy
+    public void leave() {
+        if (!clusterEnabled || nodeId == null) return;
+        try {
+            nodeRepository.deleteById(nodeId);
+        } catch (Exception e) {
+            System.err.println("Falha ao liberar o lease do nó " + nodeId + ": " + e.getMessage());
+        }
+    }
+}
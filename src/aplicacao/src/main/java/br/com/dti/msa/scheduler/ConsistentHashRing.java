@@ -0,0 +1,59 @@
+package br.com.dti.msa.scheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Anel de hash consistente: distribui chaves numéricas (ex: hosts.id) entre nós.
+ *
+ * Cada nó ocupa vários pontos (nós virtuais) do anel para equilibrar a carga.
+ * Quando um nó entra ou sai, só as chaves dos trechos dele mudam de dono;
+ * as demais continuam onde estavam. Instâncias são imutáveis.
+ */
+public class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        for (String nodeId : nodeIds) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+    }
+
+    /**
+     * Nó dono da chave, ou null se o anel estiver vazio.
+     */
+    public String ownerOf(long key) {
+        if (ring.isEmpty()) return null;
+        Map.Entry<Long, String> owner = ring.ceilingEntry(mix(key));
+        return (owner != null ? owner : ring.firstEntry()).getValue();
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    // FNV-1a de 64 bits seguido de mistura, para espalhar bem os pontos dos nós
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // Finalizador do MurmurHash3 (fmix64): IDs sequenciais viram posições bem espalhadas no anel
+    static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
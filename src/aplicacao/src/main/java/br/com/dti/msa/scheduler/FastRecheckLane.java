@@ -0,0 +1,221 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.integration.zabbix.dto.ZabbixClient;
+import br.com.dti.msa.integration.zabbix.dto.ZabbixItemResponseDTO;
+import br.com.dti.msa.model.Host;
+import br.com.dti.msa.scheduler.CollectionPlan.HostPlan;
+import br.com.dti.msa.scheduler.MetricCollectorScheduler.StatusResult;
+import br.com.dti.msa.service.ZabbixItemResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Via rápida de reavaliação para hosts em ALERT/INACTIVE ou que acabaram de mudar de status.
+ *
+ * O ciclo principal informa o status de cada host ({@link #observe}); os hosts com problema
+ * entram na via, que a cada 'msa.collector.fast-lane.interval-seconds' rebusca SÓ as chaves
+ * de disponibilidade deles (uma chamada item.get para todos) e reavalia o status com os demais
+ * valores do último ciclo. Uma mudança de status é gravada na hora, sem esperar o próximo ciclo.
+ *
+ * Roda no agendador próprio 'fastLaneScheduler' (ver ExecutorConfig), com no máximo
+ * 'msa.collector.fast-lane.max-hosts' hosts por passada, então nunca disputa a thread
+ * nem o limite de requisições do ciclo principal. Com mais hosts do que isso na via, cada passada
+ * pega os que estão há mais tempo sem reavaliação, então todos são vistos em rodízio. Hosts que
+ * este nó deixou de coletar (troca de dono no cluster) saem da via antes de qualquer gravação.
+ * O host sai da via depois de
+ * 'msa.collector.fast-lane.recovery-checks' avaliações seguidas como ACTIVE.
+ * A latência real também depende do intervalo do item no Zabbix: só há valor novo se ele coletou.
+ */
+@Component
+public class FastRecheckLane {
+
+    // 'lastPass': número da última passada que reavaliou o host (0 = nunca), para o rodízio
+    private record Watch(HostPlan host, Map<String, String> inputs, Host.HostStatus status, int healthyStreak, long lastPass) {
+    }
+
+    @Autowired private ZabbixClient zabbixClient;
+    @Autowired private ZabbixItemResolver itemResolver;
+    @Autowired private CollectedDataPersister persister;
+    @Autowired private CollectorCluster cluster;
+    @Autowired @Qualifier("fastLaneScheduler") private TaskScheduler scheduler;
+
+    @Value("${msa.collector.fast-lane.enabled:true}")
+    private boolean enabled;
+
+    @Value("${msa.collector.fast-lane.interval-seconds:10}")
+    private long intervalSeconds;
+
+    @Value("${msa.collector.fast-lane.max-hosts:50}")
+    private int maxHosts;
+
+    @Value("${msa.collector.fast-lane.recovery-checks:3}")
+    private int recoveryChecks;
+
+    private final Map<Long, Watch> watched = new ConcurrentHashMap<>();
+    private final Map<Long, Host.HostStatus> lastStatus = new ConcurrentHashMap<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private long passes;
+
+    private final Counter rechecks;
+    private final Counter transitions;
+
+    public FastRecheckLane(MeterRegistry meterRegistry) {
+        this.rechecks = Counter.builder("msa.collector.fastlane.rechecks")
+                .description("Reavaliações de status feitas pela via rápida")
+                .register(meterRegistry);
+        this.transitions = Counter.builder("msa.collector.fastlane.transitions")
+                .description("Mudanças de status detectadas pela via rápida antes do ciclo principal")
+                .register(meterRegistry);
+        Gauge.builder("msa.collector.fastlane.hosts", watched, Map::size)
+                .description("Hosts sendo reavaliados pela via rápida")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia a via rápida. Chamadas repetidas são ignoradas.
+     */
+    public void start() {
+        if (!enabled || !started.compareAndSet(false, true)) return;
+        System.out.println("Via rápida de reavaliação a cada " + intervalSeconds + " segundos para hosts com problema.");
+        scheduler.scheduleWithFixedDelay(this::recheckSafely, Instant.now().plusSeconds(intervalSeconds),
+                Duration.ofSeconds(intervalSeconds));
+    }
+
+    /**
+     * Status de um host no ciclo principal. Hosts com problema, ou cujo status acabou de mudar, entram na via.
+     */
+    void observe(HostPlan host, Map<String, String> inputs, StatusResult result) {
+        if (!enabled) return;
+        Host.HostStatus previous = lastStatus.put(host.hostId(), result.status);
+        boolean failing = result.status != Host.HostStatus.ACTIVE;
+        boolean flapped = previous != null && previous != result.status;
+
+        Watch watch = watched.get(host.hostId());
+        long lastPass = watch == null ? 0 : watch.lastPass(); // O ciclo principal não mexe no rodízio
+        if (failing || flapped) {
+            watched.put(host.hostId(), new Watch(host, new HashMap<>(inputs), result.status, 0, lastPass));
+        } else if (watch != null) {
+            follow(watch, new Watch(host, new HashMap<>(inputs), result.status, watch.healthyStreak() + 1, lastPass));
+        }
+    }
+
+    /**
+     * Descarta os hosts que não são mais coletados por este nó.
+     */
+    void retain(Set<Long> hostIds) {
+        watched.keySet().retainAll(hostIds);
+        lastStatus.keySet().retainAll(hostIds);
+    }
+
+    private void recheckSafely() {
+        try {
+            recheck();
+        } catch (Exception e) {
+            // Uma falha aqui não pode cancelar o agendamento; o ciclo principal segue valendo
+            System.err.println("Falha na via rápida de reavaliação: " + e.getMessage());
+        }
+    }
+
+    void recheck() {
+        if (watched.isEmpty()) return;
+        // Só roda no agendador da via (uma passada por vez)
+        long pass = ++passes;
+        List<Watch> batch = watched.values().stream()
+                .filter(this::stillOwned)
+                .sorted(Comparator.comparingLong(Watch::lastPass))
+                .limit(Math.max(1, maxHosts))
+                .toList();
+
+        // itemid -> chave Zabbix, por host
+        Map<Long, Map<String, String>> keysByItemId = new HashMap<>();
+        Set<String> itemIds = new HashSet<>();
+        for (Watch watch : batch) {
+            Map<String, String> hostItems = new HashMap<>();
+            for (String key : watch.host().evaluator().availabilityKeys()) {
+                itemResolver.find(watch.host().zabbixId(), key)
+                        .ifPresent(ref -> hostItems.put(String.valueOf(ref.getItemId()), key));
+            }
+            keysByItemId.put(watch.host().hostId(), hostItems);
+            itemIds.addAll(hostItems.keySet());
+        }
+        if (itemIds.isEmpty()) {
+            batch.forEach(watch -> markPassed(watch, pass));
+            return;
+        }
+
+        // Itens de blocos que falharam ficam fora do mapa: o host espera a próxima passada
+        Map<String, ZabbixItemResponseDTO> items = zabbixClient.getItemValuesByIds(itemIds).itemsById();
+        for (Watch watch : batch) {
+            Map<String, String> inputs = new HashMap<>(watch.inputs());
+            boolean refreshed = false;
+            for (Map.Entry<String, String> entry : keysByItemId.get(watch.host().hostId()).entrySet()) {
+                ZabbixItemResponseDTO item = items.get(entry.getKey());
+                if (item != null && item.getLastValue() != null) {
+                    inputs.put(entry.getValue(), item.getLastValue());
+                    refreshed = true;
+                }
+            }
+            if (!refreshed) {
+                // Sem valor novo (bloco falhou, item não resolvido): conta a vez no rodízio mesmo assim
+                markPassed(watch, pass);
+                continue;
+            }
+
+            StatusResult result = watch.host().evaluator().evaluate(new StatusInputs(inputs));
+            rechecks.increment();
+            if (result.status != watch.status()) {
+                if (!stillOwned(watch)) continue; // O anel pode ter mudado durante a chamada ao Zabbix
+                transitions.increment();
+                System.out.println("Via rápida: host " + watch.host().name() + " mudou de " + watch.status()
+                        + " para " + result.status + " (" + result.description + ")");
+                HostCollectionOutput output = new HostCollectionOutput(watch.host().hostId());
+                output.status = result;
+                persister.persistHost(output);
+                lastStatus.put(watch.host().hostId(), result.status);
+            }
+            int streak = (result.status == Host.HostStatus.ACTIVE) ? watch.healthyStreak() + 1 : 0;
+            follow(watch, new Watch(watch.host(), inputs, result.status, streak, pass));
+        }
+    }
+
+    private void markPassed(Watch watch, long pass) {
+        watched.replace(watch.host().hostId(), watch,
+                new Watch(watch.host(), watch.inputs(), watch.status(), watch.healthyStreak(), pass));
+    }
+
+    // Host que passou para outro nó: sai da via sem gravar nada (o dono grava o status dele)
+    private boolean stillOwned(Watch watch) {
+        Long hostId = watch.host().hostId();
+        if (cluster.owns(hostId)) return true;
+        watched.remove(hostId, watch);
+        lastStatus.remove(hostId);
+        return false;
+    }
+
+    // Substitui a entrada só se ninguém a trocou no meio tempo; um host recuperado sai da via
+    private void follow(Watch current, Watch next) {
+        Long hostId = current.host().hostId();
+        if (next.status() == Host.HostStatus.ACTIVE && next.healthyStreak() >= recoveryChecks) {
+            watched.remove(hostId, current);
+        } else {
+            watched.replace(hostId, current, next);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.dti.msa.scheduler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Resultado do parse (feito uma única vez) de um JSON de Health Check,
+ * ex: {"status":"UP","deps":{"db":"UP"}}.
+ *
+ * @param valid    false se o texto não for um JSON válido
+ * @param status   o campo 'status' da aplicação
+ * @param dbStatus o status em 'deps.db' (null se o JSON não trouxer o banco)
+ */
+record HealthCheckValue(boolean valid, String status, String dbStatus) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final HealthCheckValue INVALID = new HealthCheckValue(false, null, null);
+
+    static HealthCheckValue parse(String rawJson) {
+        if (rawJson == null) return INVALID;
+        try {
+            JsonNode root = MAPPER.readTree(rawJson);
+            JsonNode db = root.path("deps").path("db");
+            return new HealthCheckValue(true, root.path("status").asText(), db.isMissingNode() ? null : db.asText());
+        } catch (Exception e) {
+            return INVALID;
+        }
+    }
+
+    boolean isUp() {
+        return valid && status.equalsIgnoreCase("UP");
+    }
+
+    /**
+     * Só o banco ('deps.db') conta para o alerta; sem ele no JSON, considera-se que está no ar.
+     */
+    boolean isDbUp() {
+        return dbStatus == null || dbStatus.equalsIgnoreCase("UP");
+    }
+
+    /**
+     * Valor numérico para o histórico: 1.0 (UP), 0.0 (qualquer outro status) ou null (JSON inválido).
+     */
+    Double asNumber() {
+        return valid ? (isUp() ? 1.0 : 0.0) : null;
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.model.MetricSample;
+import br.com.dti.msa.model.MetricTextValue;
+import br.com.dti.msa.scheduler.MetricCollectorScheduler.StatusResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tudo o que um ciclo de coleta precisa gravar para UM host.
+ * É montado fora de transação (fase de rede) e gravado de uma vez
+ * pelo {@link CollectedDataPersister} em uma transação curta.
+ */
+class HostCollectionOutput {
+
+    final long hostId;
+    final List<MetricSample> samples = new ArrayList<>();
+    final List<MetricTextValue> textValues = new ArrayList<>();
+    StatusResult status;
+
+    HostCollectionOutput(long hostId) {
+        this.hostId = hostId;
+    }
+}
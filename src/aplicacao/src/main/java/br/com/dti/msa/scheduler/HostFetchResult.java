@@ -0,0 +1,53 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.integration.zabbix.dto.ZabbixItemResponseDTO;
+import br.com.dti.msa.scheduler.CollectionPlan.HostPlan;
+
+import java.util.Map;
+
+/**
+ * Resultado da fase de rede (Zabbix) para um host em um ciclo de coleta.
+ * É produzido pelas tarefas de busca (sequenciais ou paralelas) e consumido
+ * pela etapa única de persistência.
+ */
+class HostFetchResult {
+
+    final HostPlan host;
+
+    // Itens retornados pelo Zabbix, indexados pela chave Zabbix (key_)
+    final Map<String, ZabbixItemResponseDTO> itemsByKey;
+
+    // Tempo gasto nas chamadas ao Zabbix que trouxeram os dados deste host
+    final long fetchMillis;
+
+    // A busca perdeu o prazo (do host ou do ciclo), falhou ou nem saiu (circuito aberto):
+    // os valores do ciclo anterior seguem valendo
+    final boolean stale;
+
+    // Motivo exibido na descrição do status quando 'stale'
+    final String staleReason;
+
+    HostFetchResult(HostPlan host, Map<String, ZabbixItemResponseDTO> itemsByKey, long fetchMillis) {
+        this(host, itemsByKey, fetchMillis, null);
+    }
+
+    private HostFetchResult(HostPlan host, Map<String, ZabbixItemResponseDTO> itemsByKey, long fetchMillis, String staleReason) {
+        this.host = host;
+        this.itemsByKey = itemsByKey;
+        this.fetchMillis = fetchMillis;
+        this.stale = staleReason != null;
+        this.staleReason = staleReason;
+    }
+
+    static HostFetchResult stale(HostPlan host, long fetchMillis) {
+        return new HostFetchResult(host, Map.of(), fetchMillis, "Zabbix não respondeu no prazo");
+    }
+
+    static HostFetchResult failed(HostPlan host, long fetchMillis) {
+        return new HostFetchResult(host, Map.of(), fetchMillis, "falha na consulta ao Zabbix");
+    }
+
+    static HostFetchResult unavailable(HostPlan host) {
+        return new HostFetchResult(host, Map.of(), 0, "Zabbix indisponível, coleta suspensa pelo circuito");
+    }
+}
@@ -0,0 +1,180 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.model.Host;
+import br.com.dti.msa.model.HostMetricConfig;
+import br.com.dti.msa.scheduler.MetricCollectorScheduler.StatusResult;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Regras de status de UM host, "compiladas" a partir da configuração dele.
+ *
+ * A busca pelas métricas relevantes (health check, cabeçalho HTTP, ping, CPU, RAM) é feita
+ * uma única vez na compilação; a avaliação a cada ciclo só lê as chaves já resolvidas.
+ * Uma instância só precisa ser recompilada quando as configurações do host mudam
+ * (ver {@link CollectionPlanHolder}). Não depende do Spring, o que facilita testes e benchmarks.
+ */
+public final class HostStatusEvaluator {
+
+    private enum Availability { JSON_HEALTH, HTTP_HEADER, PING, RESOURCES_ONLY, NONE }
+
+    private static final StatusResult ALL_GOOD = new StatusResult(Host.HostStatus.ACTIVE, "Tudo certo com o Host.");
+    private static final StatusResult HTTP_OK = new StatusResult(Host.HostStatus.ACTIVE, "Serviço HTTP respondendo (200 OK).");
+    private static final StatusResult PING_FAILED = new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Ping falhou ou agente indisponível)");
+    private static final StatusResult NO_AVAILABILITY = new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Sem métrica de disponibilidade)");
+    private static final StatusResult NO_HEALTH_DATA = new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Sem dados do Health Check)");
+    private static final StatusResult INVALID_JSON = new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (JSON inválido)");
+    private static final StatusResult NO_HTTP_RESPONSE = new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Sem resposta HTTP)");
+
+    private final Availability availability;
+    private final String availabilityKey;
+    private final String cpuKey;
+    private final String memTotalKey;
+    private final String memAvailableKey;
+    private final StatusThresholds thresholds;
+
+    private HostStatusEvaluator(Availability availability, String availabilityKey,
+                                String cpuKey, String memTotalKey, String memAvailableKey, StatusThresholds thresholds) {
+        this.availability = availability;
+        this.availabilityKey = availabilityKey;
+        this.cpuKey = cpuKey;
+        this.memTotalKey = memTotalKey;
+        this.memAvailableKey = memAvailableKey;
+        this.thresholds = thresholds;
+    }
+
+    /**
+     * Compila as regras de status do host em uma única passada pelas configurações.
+     * Prioridade da disponibilidade: Health Check JSON > cabeçalho HTTP > ping.
+     */
+    public static HostStatusEvaluator compile(Host host, StatusThresholds thresholds) {
+        String jsonKey = null, headerKey = null, pingKey = null, cpuKey = null, memTotalKey = null, memAvailableKey = null;
+
+        for (HostMetricConfig config : host.getMetricConfigs()) {
+            String metricKey = config.getMetric().getMetricKey();
+            String zabbixKey = config.getZabbixKey();
+            switch (metricKey) {
+                // A métrica "global" tem prioridade sobre a "específica"
+                case "disponibilidade-global-health" -> jsonKey = zabbixKey;
+                case "disponibilidade-especifica-health" -> jsonKey = (jsonKey != null) ? jsonKey : zabbixKey;
+                case "disponibilidade-global-http-agente" -> headerKey = zabbixKey;
+                case "disponibilidade-especifica-http-agente" -> headerKey = (headerKey != null) ? headerKey : zabbixKey;
+                case "disponibilidade-global" -> pingKey = zabbixKey;
+                case "cpu-uso" -> cpuKey = zabbixKey;
+                case "memoria-ram-total" -> memTotalKey = zabbixKey;
+                case "memoria-ram-disponivel" -> memAvailableKey = zabbixKey;
+                default -> { }
+            }
+        }
+
+        Availability availability;
+        String availabilityKey;
+        if (jsonKey != null) {
+            availability = Availability.JSON_HEALTH;
+            availabilityKey = jsonKey;
+        } else if (headerKey != null) {
+            availability = Availability.HTTP_HEADER;
+            availabilityKey = headerKey;
+        } else if (pingKey != null) {
+            availability = Availability.PING;
+            availabilityKey = pingKey;
+        } else {
+            // Sem métrica de disponibilidade: só a CPU indica que o host está vivo
+            availability = (cpuKey != null) ? Availability.RESOURCES_ONLY : Availability.NONE;
+            availabilityKey = null;
+        }
+
+        boolean hasMemory = memTotalKey != null && memAvailableKey != null;
+        return new HostStatusEvaluator(availability, availabilityKey, cpuKey,
+                hasMemory ? memTotalKey : null, hasMemory ? memAvailableKey : null,
+                thresholds != null ? thresholds : StatusThresholds.DEFAULT);
+    }
+
+    /**
+     * Chaves que dizem se o host está no ar: a de disponibilidade ou, sem ela, a de CPU.
+     * São as que o {@link FastRecheckLane} rebusca para hosts com problema.
+     */
+    public List<String> availabilityKeys() {
+        if (availabilityKey != null) return List.of(availabilityKey);
+        return (availability == Availability.RESOURCES_ONLY) ? List.of(cpuKey) : List.of();
+    }
+
+    /**
+     * Avalia o status do host com os valores coletados no ciclo.
+     */
+    StatusResult evaluate(StatusInputs inputs) {
+        switch (availability) {
+            case JSON_HEALTH: {
+                if (inputs.raw(availabilityKey) == null) return NO_HEALTH_DATA;
+                HealthCheckValue health = inputs.healthCheck(availabilityKey);
+                if (!health.valid()) return INVALID_JSON;
+                if (!health.isUp()) {
+                    return new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Status: " + health.status() + ")");
+                }
+                if (!health.isDbUp()) {
+                    return new StatusResult(Host.HostStatus.ALERT, "Alerta: Aplicação '" + health.status()
+                            + "', mas dependência 'db' está '" + health.dbStatus() + "'.");
+                }
+                return checkResources(inputs);
+            }
+            case HTTP_HEADER: {
+                String rawHeaders = inputs.raw(availabilityKey);
+                if (rawHeaders == null) return NO_HTTP_RESPONSE;
+                if (isHttpSuccess(rawHeaders)) return HTTP_OK;
+                return new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Resposta HTTP inválida: " + firstLine(rawHeaders) + ")");
+            }
+            case PING: {
+                Double ping = inputs.number(availabilityKey);
+                if (ping == null || ping == 0.0) return PING_FAILED;
+                return checkResources(inputs);
+            }
+            case RESOURCES_ONLY:
+                return checkResources(inputs);
+            default:
+                return NO_AVAILABILITY;
+        }
+    }
+
+    private StatusResult checkResources(StatusInputs inputs) {
+        if (cpuKey != null) {
+            Double cpu = inputs.number(cpuKey);
+            if (cpu != null && cpu > thresholds.cpuMaxPercent()) {
+                return new StatusResult(Host.HostStatus.ALERT, String.format(Locale.US, "Host com alto consumo de CPU (%.1f%%)", cpu));
+            }
+        }
+
+        if (memTotalKey != null) {
+            Double total = inputs.number(memTotalKey);
+            Double available = inputs.number(memAvailableKey);
+            if (total != null && available != null && total > 0) {
+                double percentFree = (available / total) * 100;
+                if (percentFree < thresholds.ramMinFreePercent()) {
+                    return new StatusResult(Host.HostStatus.ALERT, String.format(Locale.US, "Host com alto consumo de RAM (%.1f%% livre)", percentFree));
+                }
+            }
+        }
+        return ALL_GOOD;
+    }
+
+    // --- MÉTODOS AUXILIARES (também usados pelo coletor na conversão para o histórico) ---
+
+    static boolean isJsonHealthMetric(String metricKey) {
+        return metricKey.equals("disponibilidade-global-health") ||
+               metricKey.equals("disponibilidade-especifica-health");
+    }
+
+    static boolean isHttpHeaderMetric(String metricKey) {
+        return metricKey.equals("disponibilidade-global-http-agente") ||
+               metricKey.equals("disponibilidade-especifica-http-agente");
+    }
+
+    static boolean isHttpSuccess(String rawHeaders) {
+        return rawHeaders.contains("200 OK") || rawHeaders.contains("201 Created");
+    }
+
+    private static String firstLine(String text) {
+        int idx = text.indexOf('\n');
+        return idx > -1 ? text.substring(0, idx).trim() : text;
+    }
+}
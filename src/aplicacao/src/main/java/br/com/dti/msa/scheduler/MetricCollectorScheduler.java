@@ -1,47 +1,106 @@
 package br.com.dti.msa.scheduler;
 
+import br.com.dti.msa.exception.ZabbixApiException;
+import br.com.dti.msa.integration.zabbix.ZabbixCircuitBreaker;
 import br.com.dti.msa.integration.zabbix.dto.ZabbixClient;
-import br.com.dti.msa.integration.zabbix.dto.ZabbixEventDTO;
+import br.com.dti.msa.integration.zabbix.dto.ZabbixItemResponseDTO;
+import br.com.dti.msa.integration.zabbix.dto.ZabbixItemValues;
 import br.com.dti.msa.model.Host;
-import br.com.dti.msa.model.HostMetricConfig;
-import br.com.dti.msa.model.Metric;
-import br.com.dti.msa.model.MetricCurrentValue;
-import br.com.dti.msa.model.MetricHistory;
-import br.com.dti.msa.model.RecentEvents;
-import br.com.dti.msa.repository.HostRepository;
-import br.com.dti.msa.repository.MetricCurrentValueRepository;
-import br.com.dti.msa.repository.MetricHistoryRepository;
-import br.com.dti.msa.repository.RecentEventsRepository;
+import br.com.dti.msa.model.MetricSample;
+import br.com.dti.msa.model.MetricTextValue;
+import br.com.dti.msa.model.ZabbixItemRef;
+import br.com.dti.msa.repository.MetricCurrentValueWriter;
+import br.com.dti.msa.repository.MetricHistoryIngestionQueue;
+import br.com.dti.msa.scheduler.CollectionPlan.HostPlan;
+import br.com.dti.msa.scheduler.CollectionPlan.ItemPlan;
+import br.com.dti.msa.service.ZabbixItemResolver;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Component
 public class MetricCollectorScheduler {
 
-    @Autowired private HostRepository hostRepository;
-    @Autowired private MetricHistoryRepository metricHistoryRepository;
-    @Autowired private MetricCurrentValueRepository metricCurrentValueRepository;
     @Autowired private ZabbixClient zabbixClient;
-    @Autowired private RecentEventsRepository recentEventsRepository;
+    @Autowired private CollectedDataPersister persister;
+    @Autowired private MetricHistoryIngestionQueue historyQueue;
+    @Autowired private MetricCurrentValueWriter currentValueWriter;
+    @Autowired private ZabbixEventSynchronizer eventSynchronizer;
+    @Autowired private ZabbixItemResolver itemResolver;
+    @Autowired private CollectionCadence cadence;
+    @Autowired private CollectorCluster cluster;
+    @Autowired private CollectionPlanHolder planHolder;
+    @Autowired private FastRecheckLane fastLane;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private ZabbixCircuitBreaker breaker;
+
+    @Value("${msa.collector.parallel.enabled:true}")
+    private boolean parallelEnabled;
+
+    @Value("${msa.collector.parallel.max-in-flight:8}")
+    private int maxInFlight;
+
+    @Value("${zabbix.api.item-chunk-size:500}")
+    private int itemChunkSize;
+
+    // Tempo máximo da fase de rede do ciclo; o que não voltar até lá é cancelado
+    @Value("${msa.collector.cycle-budget-seconds:45}")
+    private long cycleBudgetSeconds;
+
+    // Tempo máximo de cada requisição ao Zabbix depois que ela ganha a vaga; estourou, é interrompida
+    @Value("${msa.collector.host-deadline-seconds:15}")
+    private long hostDeadlineSeconds;
+
+    // Dispara a interrupção das requisições que passaram do prazo
+    private final ScheduledExecutorService deadlineTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "msa-collector-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Uma requisição ao Zabbix foi interrompida por prazo (do host ou do ciclo).
+     */
+    private static class DeadlineExceededException extends RuntimeException {
+        DeadlineExceededException(String message) {
+            super(message);
+        }
+    }
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Timestamp (lastclock do Zabbix) da última amostra gravada de cada série "<hostId>|<metricId>".
+    // Uma amostra cujo clock não avançou é o mesmo valor lido de novo e não vai para o histórico.
+    private final Map<String, LocalDateTime> lastSampleClock = new ConcurrentHashMap<>();
+
+    // Último valor bruto de cada chave Zabbix por host (hostId -> chave -> valor).
+    // Chaves fora da cadência no ciclo usam este valor na análise de status.
+    private final Map<Long, Map<String, String>> lastKnownValues = new ConcurrentHashMap<>();
 
     public static class StatusResult {
         final Host.HostStatus status;
@@ -53,325 +112,436 @@ public class MetricCollectorScheduler {
         }
     }
 
-    @Transactional
-    @Scheduled(fixedRate = 60000) // Executa a cada 60 segundos
+    /**
+     * Ciclo de coleta. Roda SEM transação: a fase de rede não segura conexões
+     * nem locks do banco, e cada host é gravado em uma transação curta própria.
+     * É disparado somente pelo {@link CollectionCoordinator} (um ciclo ativo por vez).
+     */
     public void collectAllMetrics() {
         System.out.println("--- INICIANDO COLETA E ANÁLISE DE STATUS: " + LocalDateTime.now() + " ---");
+        long cycleStart = System.nanoTime();
 
-        List<Host> hostsToMonitor = hostRepository.findAllWithMetrics();
-        List<MetricHistory> historyBatch = new ArrayList<>();
-        
-        for (Host host : hostsToMonitor) {
-            System.out.println("Coletando para o host: " + host.getName());
-            Map<String, String> collectedItems = new HashMap<>();
-            Set<HostMetricConfig> configs = host.getMetricConfigs();
+        // Plano em memória: o catálogo só é relido quando a configuração muda
+        CollectionPlan plan = planHolder.current();
+        List<HostPlan> allHosts = plan.hosts();
 
-            System.out.println("Todas as metricas configuradas: " + host.getMetricConfigs().stream().map(c -> c.getMetric().getMetricKey()).collect(Collectors.joining(", ")));
+        // Em várias instâncias, cada nó coleta apenas os hosts do seu trecho do anel
+        List<HostPlan> hostsToMonitor = allHosts.stream().filter(h -> cluster.owns(h.hostId())).collect(Collectors.toList());
+        if (hostsToMonitor.size() < allHosts.size()) {
+            System.out.println("Nó " + cluster.nodeId() + ": " + hostsToMonitor.size() + " de " + allHosts.size() + " hosts.");
+        }
+        int persistedHosts = 0;
+        List<MetricSample> historyBatch = new ArrayList<>();
+        List<MetricTextValue> textBatch = new ArrayList<>();
+        int staleSamples = 0;
+        int staleHosts = 0;
+
+        // CADÊNCIA: apenas as chaves vencidas de cada host são buscadas neste ciclo
+        Map<Long, Set<String>> dueKeys = cadence.dueKeys(hostsToMonitor);
+        Set<Long> monitoredIds = hostsToMonitor.stream().map(HostPlan::hostId).collect(Collectors.toSet());
+        lastKnownValues.keySet().retainAll(monitoredIds);
+        fastLane.retain(monitoredIds);
+        currentValueWriter.retain(monitoredIds);
+        System.out.println(dueKeys.values().stream().mapToInt(Set::size).sum() + " chaves vencidas de "
+                + cadence.scheduledSeries() + " séries agendadas (" + dueKeys.size() + " hosts; pico na janela "
+                + cadence.peakHostsPerCycle() + ", espalhamento " + String.format("%.2f", cadence.spreadRatio()) + ").");
+
+        // FASE DE REDE: busca os valores da frota inteira (em paralelo, se habilitado)
+        long budgetDeadline = cycleStart + TimeUnit.SECONDS.toNanos(cycleBudgetSeconds);
+        List<HostFetchResult> fetchResults = fetchFleet(hostsToMonitor, dueKeys, budgetDeadline);
+        long fetchMillis = elapsedMillis(cycleStart);
+
+        // FASE DE PERSISTÊNCIA: consolida os resultados de todos os hosts
+        for (HostFetchResult fetchResult : fetchResults) {
+            HostPlan host = fetchResult.host;
+            HostCollectionOutput output = new HostCollectionOutput(host.hostId());
+            System.out.println("Processando o host: " + host.name() + " (busca em " + fetchResult.fetchMillis + " ms)");
+            Map<String, String> collectedItems = new HashMap<>();
+            StatusInputs statusInputs = new StatusInputs(collectedItems);
+            Map<String, ZabbixItemResponseDTO> itemsByKey = fetchResult.itemsByKey;
+            Set<String> hostDueKeys = dueKeys.getOrDefault(host.hostId(), Set.of());
+            Map<String, String> lastKnown = lastKnownValues.computeIfAbsent(host.hostId(), id -> new ConcurrentHashMap<>());
+
+            for (ItemPlan planned : host.items()) {
+                String zabbixKey = planned.zabbixKey();
+
+                if (!hostDueKeys.contains(zabbixKey) || fetchResult.stale) {
+                    // Fora da cadência ou busca fora do prazo: o último valor conhecido ainda vale para o status
+                    String knownValue = lastKnown.get(zabbixKey);
+                    if (knownValue != null) collectedItems.put(zabbixKey, knownValue);
+                    continue;
+                }
 
-            for (HostMetricConfig config : configs) {
-                Metric metric = config.getMetric();
-                String zabbixKey = config.getZabbixKey();
-                String metricKey = metric.getMetricKey();
-                
-                if (zabbixKey == null || zabbixKey.equalsIgnoreCase("zabbix_api")) continue; 
-                
-                String rawValue = zabbixClient.getSingleItemValue(host.getZabbixId(), zabbixKey); 
+                ZabbixItemResponseDTO item = itemsByKey.get(zabbixKey);
+                String rawValue = (item != null) ? item.getLastValue() : null;
 
                 if (rawValue != null) {
-                    collectedItems.put(zabbixKey, rawValue);              
-                    
-                    Double numericValue = null;
-                    boolean isText = false;
-
-                    try {
-                        // Tenta converter para número (Ping, CPU, RAM)
-                        numericValue = Double.parseDouble(rawValue);
-                    } catch (NumberFormatException e) {
-                        isText = true;
-                        
-                        // Se falhar, verifica se é Health Check (JSON)
-                        if (isJsonHealthMetric(metricKey)) {
-                            numericValue = parseHealthCheckJson(rawValue);
-                            isText = (numericValue == null); // Se parseou, vira número
-                        }
-                        // Verifica se é HTTP Header (Texto)
-                        else if (isHttpHeaderMetric(metricKey)) {
-                            numericValue = parseHttpHeader(rawValue);
-                            isText = (numericValue == null); // Se parseou, vira número
-                        }
-                    }
+                    collectedItems.put(zabbixKey, rawValue);
+                    lastKnown.put(zabbixKey, rawValue);
+
+                    // Parser definido no plano; item ainda sem value_type conhecido usa o que veio do Zabbix
+                    ValueParser parser = (planned.parser() == ValueParser.AUTO)
+                            ? ValueParser.forValueType(item.getValueType())
+                            : planned.parser();
+                    Double numericValue = parser.toNumber(rawValue, zabbixKey, statusInputs);
 
                     // Salva o dado
-                    if (!isText) {
-                        MetricHistory historyRecord = new MetricHistory(host, metric, LocalDateTime.now(), numericValue);
-                        historyBatch.add(historyRecord);
-                        System.out.println("  > Métrica NUMÉRICA '" + metric.getName() + "' salva no histórico: " + numericValue);
+                    if (numericValue != null) {
+                        LocalDateTime sampleTime = sampleTime(item);
+                        if (isNewSample(planned.seriesKey(), sampleTime)) {
+                            output.samples.add(new MetricSample(host.hostId(), planned.metricId(), sampleTime, numericValue));
+                            System.out.println("  > Métrica NUMÉRICA '" + planned.metricName() + "' salva no histórico: " + numericValue);
+                        } else {
+                            staleSamples++;
+                        }
                     } else {
-                        System.out.println("  > Métrica de TEXTO '" + metric.getName() + "' detectada. Salvando valor atual.");
-                        saveOrUpdateCurrentTextValue(host, metric, rawValue);
+                        System.out.println("  > Métrica de TEXTO '" + planned.metricName() + "' detectada. Salvando valor atual.");
+                        output.textValues.add(new MetricTextValue(host.hostId(), planned.metricId(), rawValue));
                     }
                 } else {
-                    System.err.println("  > Falha ao coletar métrica '" + metric.getName() + "' com chave '" + zabbixKey + "'.");
+                    System.err.println("  > Falha ao coletar métrica '" + planned.metricName() + "' com chave '" + zabbixKey + "'.");
                 }
             }
 
-            // DETERMINA STATUS E SALVA
-            StatusResult result = determineHostStatus(host, collectedItems);
-            host.setStatus(result.status);
-            host.setStatusDescription(result.description);
-            System.out.println("  > Status: " + result.status + " (" + result.description + ")");
+            // DETERMINA STATUS
+            StatusResult result = host.evaluator().evaluate(statusInputs);
+            if (fetchResult.stale) {
+                // Sem resposta no prazo não significa host parado: mantém o status dos últimos valores e avisa
+                staleHosts++;
+                result = collectedItems.isEmpty() ? null : new StatusResult(result.status,
+                        "Dados desatualizados (" + fetchResult.staleReason + "). " + result.description);
+            } else {
+                fastLane.observe(host, collectedItems, result);
+            }
+            output.status = result;
+            if (result != null) {
+                System.out.println("  > Status: " + result.status + " (" + result.description + ")");
+            }
+
+            // SALVA TUDO DO HOST EM UMA TRANSAÇÃO CURTA
+            try {
+                persister.persistHost(output);
+                persistedHosts++;
+                historyBatch.addAll(output.samples);
+                textBatch.addAll(output.textValues);
+            } catch (Exception e) {
+                System.err.println("  > Falha ao gravar os dados do host " + host.name() + ": " + e.getMessage());
+            }
+        }
 
-            // COLETA DE EVENTOS
-            collectEventsForHost(host, configs);
+        // Histórico numérico: vai para o WAL e a fila; a gravação no banco é feita pela thread de gravação
+        try {
+            historyQueue.enqueue(historyBatch);
+            historyBatch.forEach(sample -> lastSampleClock.merge(seriesKey(sample.hostId(), sample.metricId()), sample.timestamp(),
+                    (previous, current) -> current.isAfter(previous) ? current : previous));
+            System.out.println(historyBatch.size() + " registros de histórico enfileirados para " + persistedHosts + " hosts ("
+                    + staleSamples + " amostras sem valor novo no Zabbix ignoradas, " + historyQueue.size() + " na fila).");
+        } catch (Exception e) {
+            System.err.println("Falha ao enfileirar o histórico de métricas: " + e.getMessage());
         }
 
-        if (!historyBatch.isEmpty()) {
-            metricHistoryRepository.saveAll(historyBatch);
-            System.out.println(historyBatch.size() + " registros de histórico salvos.");
+        // Eventos: uma busca incremental para a frota inteira, feita apenas pelo nó líder
+        if (cluster.isLeader()) {
+            try {
+                eventSynchronizer.sync(allHosts);
+            } catch (Exception e) {
+                System.err.println("Falha ao sincronizar eventos do Zabbix: " + e.getMessage());
+            }
         }
-        System.out.println("--- COLETA FINALIZADA ---");
+
+        // Valores de texto: só o que mudou é regravado
+        try {
+            currentValueWriter.write(textBatch, LocalDateTime.now());
+        } catch (Exception e) {
+            System.err.println("Falha ao gravar os valores atuais de métricas: " + e.getMessage());
+        }
+
+        if (staleHosts > 0) {
+            count("msa.collector.hosts.stale", staleHosts);
+        }
+        long slowestHost = fetchResults.stream().mapToLong(r -> r.fetchMillis).max().orElse(0);
+        System.out.println("--- COLETA FINALIZADA: " + fetchResults.size() + " hosts (" + staleHosts + " fora do prazo) | busca " + fetchMillis
+                + " ms (host mais lento " + slowestHost + " ms) | total " + elapsedMillis(cycleStart) + " ms ---");
     }
 
     // ===================================================================
-    // MÉTODOS DE DETERMINAÇÃO DE STATUS
+    // MÉTODOS DE BUSCA NO ZABBIX
     // ===================================================================
-    StatusResult determineHostStatus(Host host, Map<String, String> collectedZabbixMetrics) {
-        Set<HostMetricConfig> configs = host.getMetricConfigs();
 
-        // Verifica Health Check (JSON)
-        Optional<HostMetricConfig> jsonConfig = configs.stream().filter(c -> isJsonHealthMetric(c.getMetric().getMetricKey())).findFirst();
-        if (jsonConfig.isPresent()) {
-            return evaluateJsonHealthStatus(jsonConfig.get(), collectedZabbixMetrics, host, configs);
+    /**
+     * Busca os últimos valores das chaves vencidas de todos os hosts monitorados.
+     * Hosts sem nenhuma chave vencida não geram chamada ao Zabbix nem gravação neste ciclo.
+     * As chaves já resolvidas (cache zabbix_item_ref) são agrupadas em blocos de hosts inteiros
+     * e buscadas por 'itemids'; hosts com chaves ainda não resolvidas viram uma tarefa própria.
+     * As tarefas rodam em virtual threads, limitadas a 'msa.collector.parallel.max-in-flight'
+     * requisições simultâneas ao Zabbix (uma por vez se o modo paralelo estiver desligado).
+     * Cada requisição tem o prazo 'msa.collector.host-deadline-seconds' e a fase inteira termina
+     * em 'budgetDeadline': o que passar disso é cancelado e os hosts ficam com os dados anteriores.
+     * Uma tarefa que falhar por outro motivo também deixa os hosts dela com os dados anteriores.
+     * Com o circuito do Zabbix aberto nenhuma chamada sairia: a fase de rede é pulada e os hosts
+     * vencidos ficam com os dados anteriores na hora, sem esperar prazo algum.
+     */
+    private List<HostFetchResult> fetchFleet(List<HostPlan> hosts, Map<Long, Set<String>> dueKeys, long budgetDeadline) {
+        if (breaker != null && !breaker.allowsCalls()) {
+            System.err.println("Circuito do Zabbix aberto: fase de rede pulada, dados mantidos como desatualizados.");
+            count("msa.collector.breaker.skipped", 1);
+            return hosts.stream()
+                    .filter(host -> !dueKeys.getOrDefault(host.hostId(), Set.of()).isEmpty())
+                    .map(HostFetchResult::unavailable)
+                    .collect(Collectors.toList());
         }
 
-        // Verifica HTTP Header Check (Texto)
-        Optional<HostMetricConfig> headerConfig = configs.stream().filter(c -> isHttpHeaderMetric(c.getMetric().getMetricKey())).findFirst();
-        if (headerConfig.isPresent()) {
-            return evaluateHttpHeaderStatus(headerConfig.get(), collectedZabbixMetrics);
-        }
+        List<Callable<List<HostFetchResult>>> tasks = new ArrayList<>();
+        List<List<HostPlan>> taskHosts = new ArrayList<>();
+        List<HostFetchResult> results = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(parallelEnabled ? Math.max(1, maxInFlight) : 1);
+
+        List<HostPlan> currentBatch = new ArrayList<>();
+        Set<String> currentIds = new HashSet<>();
+        for (HostPlan host : hosts) {
+            Set<String> keys = dueKeys.getOrDefault(host.hostId(), Set.of());
+            if (keys.isEmpty()) {
+                // Nada vencido: sem valores novos, o status e os dados do host continuam os mesmos
+                continue;
+            }
+            Set<String> hostIds = new HashSet<>();
+            boolean allResolved = true;
+            for (String key : keys) {
+                Optional<ZabbixItemRef> ref = itemResolver.find(host.zabbixId(), key);
+                if (ref.isPresent()) {
+                    hostIds.add(String.valueOf(ref.get().getItemId()));
+                } else {
+                    allResolved = false;
+                }
+            }
 
-        // Verifica Ping Padrão
-        Optional<HostMetricConfig> pingConfig = configs.stream().filter(c -> c.getMetric().getMetricKey().equals("disponibilidade-global")).findFirst();
-        if (pingConfig.isPresent()) {
-            String zabbixKey = pingConfig.get().getZabbixKey();
-            Double val = parseDouble(collectedZabbixMetrics.get(zabbixKey));
-            if (val == null || val == 0.0) {
-                return new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Ping falhou)");
+            if (!allResolved) {
+                // Cache miss: o host é resolvido em uma tarefa própria
+                tasks.add(() -> List.of(fetchUnresolvedHost(host, keys, inFlight)));
+                taskHosts.add(List.of(host));
+                continue;
             }
-        } else {
-             // Se não tem nenhuma métrica de disponibilidade, assume INACTIVE se não houver CPU
-             if (configs.stream().noneMatch(c -> c.getMetric().getMetricKey().equals("cpu-uso"))) {
-                 return new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Sem métrica de disponibilidade)"); 
-             }
-        }
 
-        // Checa Recursos
-        return checkResourceAlerts(host, configs, collectedZabbixMetrics);
-    }
-    
-    /**
-     * CORRIGIDO: Método auxiliar que agora retorna a 'StatusResult'
-     */
-    private StatusResult checkResourceAlerts(Host host, Set<HostMetricConfig> configs, Map<String, String> zabbixMetrics) {
-        
-        // Alerta de CPU
-        Optional<HostMetricConfig> cpuConfig = configs.stream()
-                .filter(c -> c.getMetric().getMetricKey().equals("cpu-uso"))
-                .findFirst();
-        if (cpuConfig.isPresent()) {
-            String zabbixKey = cpuConfig.get().getZabbixKey();
-            Double cpuValue = parseDouble(zabbixMetrics.get(zabbixKey));
-            if (cpuValue != null && cpuValue > 90.0) {
-                return new StatusResult(Host.HostStatus.ALERT, String.format(java.util.Locale.US, "Host com alto consumo de CPU (%.1f%%)", cpuValue));
+            // Nunca divide um host entre dois blocos
+            if (!currentBatch.isEmpty() && currentIds.size() + hostIds.size() > itemChunkSize) {
+                List<HostPlan> batch = currentBatch;
+                Set<String> batchIds = currentIds;
+                tasks.add(() -> fetchBatch(batch, batchIds, dueKeys, inFlight));
+                taskHosts.add(batch);
+                currentBatch = new ArrayList<>();
+                currentIds = new HashSet<>();
             }
+            currentBatch.add(host);
+            currentIds.addAll(hostIds);
+        }
+        if (!currentBatch.isEmpty()) {
+            List<HostPlan> batch = currentBatch;
+            Set<String> batchIds = currentIds;
+            tasks.add(() -> fetchBatch(batch, batchIds, dueKeys, inFlight));
+            taskHosts.add(batch);
         }
-        
-        // Alerta de Memória RAM
-        Optional<HostMetricConfig> memTotalConfig = configs.stream().filter(c -> c.getMetric().getMetricKey().equals("memoria-ram-total")).findFirst();
-        Optional<HostMetricConfig> memAvailableConfig = configs.stream().filter(c -> c.getMetric().getMetricKey().equals("memoria-ram-disponivel")).findFirst();
-        
-        if (memTotalConfig.isPresent() && memAvailableConfig.isPresent()) {
-            String totalKey = memTotalConfig.get().getZabbixKey();
-            String availableKey = memAvailableConfig.get().getZabbixKey();
-            
-            Double total = parseDouble(zabbixMetrics.get(totalKey));
-            Double available = parseDouble(zabbixMetrics.get(availableKey));
-            
-            if (total != null && available != null && total > 0) {
-                double percentFree = (available / total) * 100;
-                if (percentFree < 10.0) {
-                     return new StatusResult(Host.HostStatus.ALERT, String.format(java.util.Locale.US, "Host com alto consumo de RAM (%.1f%% livre)", percentFree));
+
+        // Mesmo sem paralelismo as tarefas rodam em virtual threads: assim uma leitura de socket
+        // presa pode ser interrompida pelo prazo, o que não acontece na thread do coletor
+        boolean budgetExceeded = false;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<HostFetchResult>>> futures = new ArrayList<>();
+            for (Callable<List<HostFetchResult>> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Future<List<HostFetchResult>> future = futures.get(i);
+                long waitStart = System.nanoTime();
+                try {
+                    results.addAll(future.get(Math.max(0, budgetDeadline - waitStart), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    // Orçamento do ciclo esgotado: cancela (interrompe) o que ainda está em andamento
+                    budgetExceeded = true;
+                    future.cancel(true);
+                    taskHosts.get(i).forEach(h -> results.add(HostFetchResult.stale(h, elapsedMillis(waitStart))));
+                } catch (ExecutionException e) {
+                    System.err.println("Erro ao buscar dados no Zabbix: " + e.getCause().getMessage());
+                    // Sem resposta não quer dizer host parado: os hosts do bloco ficam com os dados anteriores
+                    boolean deadline = e.getCause() instanceof DeadlineExceededException;
+                    taskHosts.get(i).forEach(h -> results.add(deadline
+                            ? HostFetchResult.stale(h, elapsedMillis(waitStart))
+                            : HostFetchResult.failed(h, elapsedMillis(waitStart))));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(f -> f.cancel(true));
+                    break;
                 }
             }
         }
-
-        // Se passou por tudo, está OK
-        return new StatusResult(Host.HostStatus.ACTIVE, "Tudo certo com o Host.");
+        if (budgetExceeded) {
+            count("msa.collector.budget.exceeded", 1);
+            System.err.println("Orçamento do ciclo (" + cycleBudgetSeconds + " s) esgotado: buscas pendentes canceladas.");
+        }
+        return results;
     }
 
     /**
-     * Salva ou atualiza o último valor de uma métrica de texto (não numérica)
-     * na tabela 'metric_current_value'.
-     *
-     * @param host 
-     * @param metric
-     * @param rawValue
+     * Busca um bloco de hosts já resolvidos com uma única chamada item.get por 'itemids'.
+     * Itens que não voltarem (excluídos/recriados no Zabbix) disparam uma nova resolução do host.
+     * Hosts com itens em um bloco que falhou ficam com os dados anteriores, sem nova resolução:
+     * o Zabbix já está falhando e mais uma chamada por host só pioraria.
      */
-    private void saveOrUpdateCurrentTextValue(Host host, Metric metric, String rawValue) {
-        // Procura se já existe um valor salvo para esta combinação de host/métrica
-        MetricCurrentValue currentValue = metricCurrentValueRepository
-            .findByHostIdAndMetricId(host.getId(), metric.getId())
-            .orElse(new MetricCurrentValue()); // 2. Se não existir, cria um novo objeto
-
-        // Atualiza os dados do objeto
-        currentValue.setHost(host);
-        currentValue.setMetric(metric);
-        currentValue.setCurrentValue(rawValue);
-        currentValue.setLastUpdated(LocalDateTime.now());
-        
-        // Salva no banco (INSERT se for novo, UPDATE se já existia)
-        metricCurrentValueRepository.save(currentValue);
+    private List<HostFetchResult> fetchBatch(List<HostPlan> batch, Set<String> itemIds, Map<Long, Set<String>> dueKeys, Semaphore inFlight) {
+        long start = System.nanoTime();
+        ZabbixItemValues values = withPermit(inFlight, () -> zabbixClient.getItemValuesByIds(itemIds));
+        long batchMillis = elapsedMillis(start);
+
+        List<HostFetchResult> results = new ArrayList<>();
+        for (HostPlan host : batch) {
+            long hostStart = System.nanoTime();
+            Set<String> keys = dueKeys.getOrDefault(host.hostId(), Set.of());
+            Map<String, ZabbixItemResponseDTO> hostItems = new HashMap<>();
+            boolean missing = false;
+            boolean failed = false;
+            for (String key : keys) {
+                String itemId = itemResolver.find(host.zabbixId(), key)
+                        .map(ref -> String.valueOf(ref.getItemId()))
+                        .orElse(null);
+                ZabbixItemResponseDTO item = itemId == null ? null : values.itemsById().get(itemId);
+                if (item != null) {
+                    hostItems.put(key, item);
+                } else if (itemId != null && values.failed(itemId)) {
+                    failed = true;
+                } else {
+                    missing = true;
+                }
+            }
+            if (failed) {
+                results.add(HostFetchResult.failed(host, batchMillis + elapsedMillis(hostStart)));
+                continue;
+            }
+            if (missing) {
+                System.out.println("  > Itens desatualizados no cache para o host " + host.name() + ". Resolvendo novamente...");
+                try {
+                    hostItems.putAll(resolveDueItems(host, keys, inFlight));
+                } catch (DeadlineExceededException e) {
+                    // Só este host perde o prazo; os demais do bloco já têm seus valores
+                    results.add(HostFetchResult.stale(host, batchMillis + elapsedMillis(hostStart)));
+                    continue;
+                } catch (ZabbixApiException e) {
+                    System.err.println("  > Falha ao resolver os itens do host " + host.name() + ": " + e.getMessage());
+                    results.add(HostFetchResult.failed(host, batchMillis + elapsedMillis(hostStart)));
+                    continue;
+                }
+            }
+            results.add(new HostFetchResult(host, hostItems, batchMillis + elapsedMillis(hostStart)));
+        }
+        return results;
     }
 
     /**
-     * método auxiliar para converter String para Double de forma segura,
-     * tratando valores nulos ou não-numéricos.
+     * Resolve as chaves de um host (cache miss) e já aproveita os valores retornados.
      */
-    private Double parseDouble(String rawValue) {
-        if (rawValue == null) return null;
-        try {
-            return Double.parseDouble(rawValue);
-        } catch (NumberFormatException e) {
-            return null; // Retorna nulo se não for um número
-        }
+    private HostFetchResult fetchUnresolvedHost(HostPlan host, Set<String> keys, Semaphore inFlight) {
+        long start = System.nanoTime();
+        Map<String, ZabbixItemResponseDTO> hostItems = resolveDueItems(host, keys, inFlight);
+        return new HostFetchResult(host, hostItems, elapsedMillis(start));
     }
 
     /**
-     * Verifica se uma métrica é do tipo Health Check (JSON).
+     * Resolve TODAS as chaves configuradas do host (o resolver descarta as que não forem informadas),
+     * mas devolve apenas os valores das chaves vencidas, para não quebrar a cadência das demais.
      */
-    private boolean isHealthCheckMetric(String metricKey) {
-        return metricKey.equals("disponibilidade-global-health") ||
-               metricKey.equals("disponibilidade-especifica-health") ||
-               metricKey.equals("disponibilidade-global-http-agente") ||
-               metricKey.equals("disponibilidade-especifica-http-agente");
+    private Map<String, ZabbixItemResponseDTO> resolveDueItems(HostPlan host, Set<String> dueKeys, Semaphore inFlight) {
+        Map<String, ZabbixItemResponseDTO> resolved = withPermit(inFlight, () -> itemResolver.resolveHost(host.zabbixId(), host.zabbixKeys()));
+        Map<String, ZabbixItemResponseDTO> dueItems = new HashMap<>(resolved);
+        dueItems.keySet().retainAll(dueKeys);
+        return dueItems;
     }
 
     /**
-     * Tenta parsear um JSON de Health Check (ex: {"status":"UP"})
-     * e o converte para 1.0 (UP) ou 0.0 (DOWN).
+     * Executa uma chamada ao Zabbix ocupando uma vaga do limite de requisições simultâneas.
+     * Se a chamada passar de 'msa.collector.host-deadline-seconds', a thread é interrompida
+     * (o que aborta a leitura do socket em uma virtual thread) e a chamada falha por prazo,
+     * mesmo que o ZabbixClient tenha engolido o erro e devolvido um resultado vazio.
      */
-    private Double parseHealthCheckJson(String rawJson) {
+    private <T> T withPermit(Semaphore inFlight, Supplier<T> call) {
         try {
-            JsonNode root = objectMapper.readTree(rawJson);
-            String status = root.path("status").asText();
-
-            if (status.equalsIgnoreCase("UP")) {
-                return 1.0;
-            } else {
-                return 0.0; // Qualquer coisa que não seja "UP" é considerado 0 (DOWN)
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            throw new DeadlineExceededException("Busca cancelada antes de começar (orçamento do ciclo esgotado)");
+        }
+        Thread caller = Thread.currentThread();
+        AtomicBoolean expired = new AtomicBoolean(false);
+        ScheduledFuture<?> watchdog = deadlineTimer.schedule(() -> {
+            expired.set(true);
+            caller.interrupt();
+        }, hostDeadlineSeconds, TimeUnit.SECONDS);
+        try {
+            T result = null;
+            try {
+                result = call.get();
+            } catch (RuntimeException e) {
+                // A interrupção do prazo aborta a espera com erro: conta como prazo, não como falha do Zabbix
+                if (!expired.get()) throw e;
+            }
+            if (expired.get()) {
+                throw new DeadlineExceededException("Zabbix não respondeu em " + hostDeadlineSeconds + " s");
+            }
+            return result;
+        } finally {
+            watchdog.cancel(false);
+            if (expired.get()) {
+                count("msa.collector.deadline.missed", 1);
+                Thread.interrupted(); // A interrupção já cumpriu seu papel; não vaza para a próxima chamada
             }
-        } catch (JsonProcessingException e) {
-            System.err.println("  > Falha ao parsear JSON de Health Check: " + rawJson);
-            return null; // Retorna nulo se o JSON for inválido
+            inFlight.release();
         }
     }
 
-    // --- MÉTODOS DE AVALIAÇÃO ESPECÍFICOS ---
+    private void count(String counterName, int amount) {
+        if (meterRegistry != null) meterRegistry.counter(counterName).increment(amount);
+    }
 
     /**
-     * Avalia métricas que retornam JSON (Ex: {"status":"UP"})
+     * Momento em que o Zabbix coletou o valor (lastclock + lastns), truncado em microssegundos
+     * como a coluna 'timestamp' do histórico. Sem lastclock, usa o horário atual.
      */
-    private StatusResult evaluateJsonHealthStatus(HostMetricConfig config, Map<String, String> metrics, Host host, Set<HostMetricConfig> allConfigs) {
-        String zabbixKey = config.getZabbixKey();
-        String rawJson = metrics.get(zabbixKey);
-
-        if (rawJson == null) return new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Sem dados do Health Check)");
-
-        try {
-            JsonNode root = objectMapper.readTree(rawJson);
-            String status = root.path("status").asText();
-
-            if (status.equalsIgnoreCase("UP")) {
-                JsonNode dbStatus = root.path("deps").path("db");
-                if (dbStatus.isMissingNode() || dbStatus.asText().equalsIgnoreCase("UP")) {
-                    // Se JSON está OK, ainda verificamos CPU/RAM
-                    return checkResourceAlerts(host, allConfigs, metrics);
-                } else {
-                    return new StatusResult(Host.HostStatus.ALERT, "Alerta: Aplicação UP, Banco de Dados DOWN.");
-                }
-            }
-            return new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Status: " + status + ")");
-        } catch (Exception e) {
-            return new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (JSON inválido)");
+    private LocalDateTime sampleTime(ZabbixItemResponseDTO item) {
+        if (item.getLastClock() <= 0) {
+            return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         }
+        Instant clock = Instant.ofEpochSecond(item.getLastClock(), item.getLastNs());
+        return LocalDateTime.ofInstant(clock, ZoneId.systemDefault()).truncatedTo(ChronoUnit.MICROS);
     }
 
     /**
-     * Avalia métricas que retornam Cabeçalhos HTTP (Texto Bruto)
-     * Ex: "HTTP/1.1 200 OK ..."
+     * Indica se o clock da amostra avançou em relação à última amostra gravada da série.
      */
-    private StatusResult evaluateHttpHeaderStatus(HostMetricConfig config, Map<String, String> metrics) {
-        String zabbixKey = config.getZabbixKey();
-        String rawHeaders = metrics.get(zabbixKey);
-
-        if (rawHeaders == null) {
-            return new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Sem resposta HTTP)");
-        }
-
-        // Verifica se contém o código 200 OK
-        if (rawHeaders.contains("200 OK") || rawHeaders.contains("201 Created")) {
-            return new StatusResult(Host.HostStatus.ACTIVE, "Serviço HTTP respondendo (200 OK).");
-        } 
-        
-        // Se retornou 404, 500, 403, etc.
-        return new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Resposta HTTP inválida: " + getFirstLine(rawHeaders) + ")");
+    private boolean isNewSample(String seriesKey, LocalDateTime sampleTime) {
+        LocalDateTime previous = lastSampleClock.get(seriesKey);
+        return previous == null || sampleTime.isAfter(previous);
     }
 
-    // --- MÉTODOS AUXILIARES ---
-
-    private boolean isJsonHealthMetric(String key) {
-        // Lista APENAS as métricas que retornam JSON
-        return key.equals("disponibilidade-global-health") ||
-               key.equals("disponibilidade-especifica-health");
+    private String seriesKey(long hostId, long metricId) {
+        return hostId + "|" + metricId;
     }
 
-    private boolean isHttpHeaderMetric(String key) {
-        // Lista APENAS as métricas que retornam Texto/Headers
-        return key.equals("disponibilidade-global-http-agente") ||
-               key.equals("disponibilidade-especifica-http-agente");
-    }
-    
-    private String getFirstLine(String text) {
-        if (text == null) return "";
-        int idx = text.indexOf('\n');
-        return idx > -1 ? text.substring(0, idx).trim() : text;
+    private long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
     }
 
     // ===================================================================
-    // MÉTODOS DE PARSING E AUXILIARES
+    // MÉTODOS DE DETERMINAÇÃO DE STATUS
     // ===================================================================
-
-    private Double parseHttpHeader(String rawHeaders) {
-        if (rawHeaders == null) return null;
-        return (rawHeaders.contains("200 OK") || rawHeaders.contains("201 Created")) ? 1.0 : 0.0;
+    StatusResult determineHostStatus(Host host, Map<String, String> collectedZabbixMetrics) {
+        return evaluatorFor(host).evaluate(new StatusInputs(collectedZabbixMetrics));
     }
 
-    private void collectEventsForHost(Host host, Set<HostMetricConfig> configs) {
-        if (configs.stream().anyMatch(c -> c.getMetric().getMetricKey().equals("eventos-recentes"))) {
-             recentEventsRepository.deleteByHostId(host.getId());
-             List<ZabbixEventDTO> events = zabbixClient.getRecentEvents(host.getZabbixId());
-             // ... (salva eventos) ...
-             if (!events.isEmpty()) {
-                 List<RecentEvents> toSave = events.stream().map(e -> {
-                     RecentEvents re = new RecentEvents();
-                     re.setHost(host);
-                     re.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochSecond(e.getClock()), ZoneId.systemDefault()));
-                     re.setSeverity(String.valueOf(e.getSeverity()));
-                     re.setName(e.getName());
-                     return re;
-                 }).collect(Collectors.toList());
-                 recentEventsRepository.saveAll(toSave);
-             }
+    /**
+     * O avaliador já compilado no plano vigente; só compila na hora um host que está fora
+     * do plano (ex: ainda não salvo).
+     */
+    private HostStatusEvaluator evaluatorFor(Host host) {
+        if (planHolder == null) {
+            return HostStatusEvaluator.compile(host, StatusThresholds.DEFAULT);
         }
+        HostPlan planned = (host.getId() != null) ? planHolder.current().host(host.getId()) : null;
+        return (planned != null) ? planned.evaluator() : HostStatusEvaluator.compile(host, planHolder.thresholdsFor(host));
     }
-}
\ No newline at end of file
+}
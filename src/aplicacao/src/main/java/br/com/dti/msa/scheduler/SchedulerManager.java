@@ -1,29 +1,59 @@
 package br.com.dti.msa.scheduler;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class SchedulerManager {
 
     private final TaskScheduler taskScheduler;
-    private final MetricCollectorScheduler metricCollector;
+    private final CollectionCoordinator collectionCoordinator;
+    private final FastRecheckLane fastRecheckLane;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    @Value("${msa.collector.cycle-interval-seconds:60}")
+    private long cycleIntervalSeconds;
+
+    // No modo escalonado o ciclo roda a cada tick e busca só os hosts cujo deslocamento venceu
+    @Value("${msa.collector.stagger.enabled:false}")
+    private boolean staggered;
+
+    @Value("${msa.collector.stagger.tick-seconds:5}")
+    private long staggerTickSeconds;
 
     @Autowired
-    public SchedulerManager(TaskScheduler taskScheduler, MetricCollectorScheduler metricCollector) {
+    public SchedulerManager(@Qualifier("collectorScheduler") TaskScheduler taskScheduler, CollectionCoordinator collectionCoordinator,
+                            FastRecheckLane fastRecheckLane) {
         this.taskScheduler = taskScheduler;
-        this.metricCollector = metricCollector;
+        this.collectionCoordinator = collectionCoordinator;
+        this.fastRecheckLane = fastRecheckLane;
     }
 
+    /**
+     * Agenda o coletor de métricas. Este é o ÚNICO agendamento do coletor
+     * (o método de coleta não tem @Scheduled), e chamadas repetidas são ignoradas.
+     */
     public void startMetricCollection() {
-        System.out.println("Agendando o coletor de métricas para rodar a cada 60 segundos.");
-        
-        // Esta linha é o equivalente programático de @Scheduled(fixedRate = 60000)
+        if (!started.compareAndSet(false, true)) {
+            System.out.println("O coletor de métricas já está agendado.");
+            return;
+        }
+        long intervalSeconds = staggered ? staggerTickSeconds : cycleIntervalSeconds;
+        System.out.println("Agendando o coletor de métricas para rodar a cada " + intervalSeconds + " segundos"
+                + (staggered ? " (escalonado em " + cycleIntervalSeconds + " s)." : "."));
+
+        // O coordenador garante um único ciclo ativo e trata os overruns
         taskScheduler.scheduleAtFixedRate(
-            metricCollector::collectAllMetrics, // O método que será executado
-            Duration.ofMillis(60000)            // O intervalo
+            collectionCoordinator::trigger,          // O gatilho do ciclo
+            Duration.ofSeconds(intervalSeconds)      // O intervalo
         );
+
+        // Hosts com problema são reavaliados à parte, em uma thread própria
+        fastRecheckLane.start();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package br.com.dti.msa.scheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Valores brutos de um host em um ciclo (chave Zabbix -> valor), com o parse dos
+ * Health Checks JSON memorizado: o coletor e o avaliador de status compartilham o
+ * mesmo objeto, então cada JSON é lido uma única vez.
+ */
+final class StatusInputs {
+
+    private final Map<String, String> raw;
+    private Map<String, HealthCheckValue> healthChecks;
+
+    StatusInputs(Map<String, String> raw) {
+        this.raw = raw;
+    }
+
+    String raw(String zabbixKey) {
+        return raw.get(zabbixKey);
+    }
+
+    Double number(String zabbixKey) {
+        String value = raw.get(zabbixKey);
+        if (value == null) return null;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    HealthCheckValue healthCheck(String zabbixKey) {
+        if (healthChecks == null) healthChecks = new HashMap<>(4);
+        return healthChecks.computeIfAbsent(zabbixKey, key -> HealthCheckValue.parse(raw.get(key)));
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.dti.msa.scheduler;
+
+/**
+ * Limites usados pelo avaliador de status.
+ * Configuráveis por tipo de host em 'msa.status.<tipo>.*', com padrão em 'msa.status.*'.
+ *
+ * @param cpuMaxPercent     acima deste uso de CPU (%) o host entra em ALERTA
+ * @param ramMinFreePercent abaixo deste percentual de RAM livre o host entra em ALERTA
+ */
+public record StatusThresholds(double cpuMaxPercent, double ramMinFreePercent) {
+
+    public static final StatusThresholds DEFAULT = new StatusThresholds(90.0, 10.0);
+}
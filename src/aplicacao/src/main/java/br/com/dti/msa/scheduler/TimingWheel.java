@@ -0,0 +1,93 @@
+package br.com.dti.msa.scheduler;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Roda de temporização (hashed timing wheel) com ticks inteiros.
+ *
+ * Cada item é guardado no slot (tick de vencimento % número de slots), então agendar
+ * custa O(1) e avançar custa O(ticks percorridos + itens vencidos), independentemente
+ * de quantos itens estão agendados. Itens com vencimento além de uma volta da roda
+ * ficam no mesmo slot e só são liberados quando o tick deles chega.
+ *
+ * Não é thread-safe: quem usa deve sincronizar o acesso.
+ */
+public class TimingWheel<T> {
+
+    /**
+     * Um item vencido e o tick em que ele estava agendado.
+     */
+    public record Timeout<T>(T item, long dueTick) {
+    }
+
+    private final List<List<Timeout<T>>> slots;
+    private final int mask;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param slotCount  número de slots (arredondado para a próxima potência de 2)
+     * @param startTick  tick considerado "já processado" no início
+     */
+    public TimingWheel(int slotCount, long startTick) {
+        int capacity = Integer.highestOneBit(Math.max(2, slotCount) - 1) << 1;
+        this.slots = new ArrayList<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.mask = capacity - 1;
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Agenda um item para o tick informado. Ticks já processados vencem no próximo avanço.
+     */
+    public void schedule(T item, long dueTick) {
+        long tick = Math.max(dueTick, currentTick + 1);
+        slots.get((int) (tick & mask)).add(new Timeout<>(item, tick));
+        size++;
+    }
+
+    /**
+     * Avança a roda até o tick informado (inclusive) e retorna os itens vencidos.
+     */
+    public List<Timeout<T>> advanceTo(long tick) {
+        List<Timeout<T>> expired = new ArrayList<>();
+        if (tick <= currentTick) return expired;
+
+        if (tick - currentTick >= slots.size()) {
+            // Salto maior que uma volta: varre todos os slots uma única vez
+            for (List<Timeout<T>> slot : slots) {
+                expire(slot, tick, expired);
+            }
+        } else {
+            for (long t = currentTick + 1; t <= tick; t++) {
+                expire(slots.get((int) (t & mask)), tick, expired);
+            }
+        }
+        currentTick = tick;
+        return expired;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void expire(List<Timeout<T>> slot, long tick, List<Timeout<T>> expired) {
+        Iterator<Timeout<T>> it = slot.iterator();
+        while (it.hasNext()) {
+            Timeout<T> timeout = it.next();
+            if (timeout.dueTick() <= tick) {
+                expired.add(timeout);
+                it.remove();
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.dti.msa.scheduler;
+
+/**
+ * Como o valor bruto de um item vira número para o histórico.
+ * Escolhido uma vez, na montagem do {@link CollectionPlan}, em vez de tentar
+ * Double.parseDouble e depois classificar a métrica pela chave a cada ciclo.
+ */
+public enum ValueParser {
+
+    /** Tipo ainda desconhecido: tenta número, senão é texto. */
+    AUTO,
+    /** Item numérico do Zabbix (value_type 0 ou 3). */
+    NUMBER,
+    /** Item de texto do Zabbix (value_type 1, 2 ou 4): vai para 'metric_current_value'. */
+    TEXT,
+    /** Health Check JSON: 1.0 (UP) / 0.0 (DOWN). */
+    HEALTH_JSON,
+    /** Cabeçalhos HTTP: 1.0 (200/201) / 0.0. */
+    HTTP_HEADER;
+
+    /**
+     * Parser de uma métrica: pelo tipo da métrica e, se já conhecido, pelo value_type do item no Zabbix.
+     */
+    static ValueParser forMetric(String metricKey, Integer valueType) {
+        if (HostStatusEvaluator.isJsonHealthMetric(metricKey)) return HEALTH_JSON;
+        if (HostStatusEvaluator.isHttpHeaderMetric(metricKey)) return HTTP_HEADER;
+        return (valueType != null) ? forValueType(valueType) : AUTO;
+    }
+
+    static ValueParser forValueType(int valueType) {
+        return switch (valueType) {
+            case 0, 3 -> NUMBER;
+            case 1, 2, 4 -> TEXT;
+            default -> AUTO;
+        };
+    }
+
+    /**
+     * Converte o valor bruto para o histórico. Retorna null quando o valor é texto.
+     * O JSON de Health Check é lido pelo {@link StatusInputs}, que reaproveita o parse no status.
+     */
+    Double toNumber(String rawValue, String zabbixKey, StatusInputs inputs) {
+        return switch (this) {
+            case NUMBER, AUTO -> parseNumber(rawValue);
+            case TEXT -> null;
+            case HEALTH_JSON -> {
+                Double number = rawValue.startsWith("{") ? null : parseNumber(rawValue);
+                yield (number != null) ? number : inputs.healthCheck(zabbixKey).asNumber();
+            }
+            case HTTP_HEADER -> HostStatusEvaluator.isHttpSuccess(rawValue) ? 1.0 : 0.0;
+        };
+    }
+
+    private static Double parseNumber(String rawValue) {
+        try {
+            return Double.parseDouble(rawValue);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
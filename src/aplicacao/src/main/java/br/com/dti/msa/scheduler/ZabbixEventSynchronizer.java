@@ -0,0 +1,106 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.integration.zabbix.dto.ZabbixClient;
+import br.com.dti.msa.integration.zabbix.dto.ZabbixEventDTO;
+import br.com.dti.msa.model.EventSyncWatermark;
+import br.com.dti.msa.repository.EventSyncWatermarkRepository;
+import br.com.dti.msa.repository.RecentEventsRepository;
+import br.com.dti.msa.scheduler.CollectionPlan.HostPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sincronização incremental dos eventos do Zabbix para a tabela 'recent_events'.
+ *
+ * Em vez de apagar e rebuscar os 5 últimos eventos de cada host a cada ciclo, faz uma
+ * única busca event.get para a frota inteira a partir do último eventid já gravado
+ * (watermark em 'event_sync_watermark'). Só eventos novos são inseridos, e eventos
+ * em aberto são apenas marcados como resolvidos quando o Zabbix os fecha.
+ */
+@Component
+public class ZabbixEventSynchronizer {
+
+    static final String WATERMARK_ID = "zabbix-events";
+
+    @Autowired private ZabbixClient zabbixClient;
+    @Autowired private RecentEventsRepository recentEventsRepository;
+    @Autowired private EventSyncWatermarkRepository watermarkRepository;
+    @Autowired private CollectedDataPersister persister;
+
+    @Value("${msa.events.page-size:1000}")
+    private int pageSize;
+
+    @Value("${msa.events.initial-lookback-hours:24}")
+    private int initialLookbackHours;
+
+    // Com ciclos curtos (modo escalonado), os eventos continuam sendo buscados no ritmo original
+    @Value("${msa.events.sync-interval-seconds:60}")
+    private long syncIntervalSeconds;
+
+    private volatile long lastSyncMillis;
+
+    /**
+     * Sincroniza os eventos dos hosts que monitoram 'eventos-recentes'.
+     * A rede roda fora de transação; a gravação (eventos + watermark) é atômica.
+     */
+    public void sync(List<HostPlan> hosts) {
+        long now = System.currentTimeMillis();
+        // 1 s de folga: com ciclos do mesmo intervalo, um atraso pequeno não pula uma sincronização
+        if (now - lastSyncMillis < syncIntervalSeconds * 1000 - 1000) return;
+        lastSyncMillis = now;
+
+        // zabbixId -> id do host no MSA
+        Map<Long, Long> hostsByZabbixId = new HashMap<>();
+        for (HostPlan host : hosts) {
+            if (host.monitorsEvents()) {
+                hostsByZabbixId.put(host.zabbixId(), host.hostId());
+            }
+        }
+        if (hostsByZabbixId.isEmpty()) return;
+
+        EventSyncWatermark watermark = watermarkRepository.findById(WATERMARK_ID)
+                .orElseGet(() -> new EventSyncWatermark(WATERMARK_ID, 0L,
+                        Instant.now().minusSeconds(initialLookbackHours * 3600L).getEpochSecond()));
+        long lastEventId = watermark.getLastEventId();
+        long lastClock = watermark.getLastClock();
+
+        // 1. Eventos novos, paginados pelo eventid
+        List<ZabbixEventDTO> newEvents = new ArrayList<>();
+        while (true) {
+            Long timeFrom = (lastEventId == 0) ? lastClock : null;
+            List<ZabbixEventDTO> page = zabbixClient.getProblemEventsAfter(hostsByZabbixId.keySet(), lastEventId, timeFrom, pageSize);
+            for (ZabbixEventDTO event : page) {
+                newEvents.add(event);
+                lastEventId = Math.max(lastEventId, Long.parseLong(event.getEventId()));
+                lastClock = Math.max(lastClock, event.getClock());
+            }
+            if (page.size() < pageSize) break;
+        }
+
+        // 2. Problemas em aberto (já gravados ou que acabaram de chegar) que podem ter sido resolvidos
+        Set<String> openEventIds = new LinkedHashSet<>();
+        recentEventsRepository.findOpenZabbixEventIds().forEach(id -> openEventIds.add(String.valueOf(id)));
+        newEvents.stream()
+                .filter(e -> e.getRecoveryEventId() != null && !e.getRecoveryEventId().equals("0"))
+                .forEach(e -> openEventIds.add(e.getEventId()));
+        Map<String, Long> recoveryClocks = openEventIds.isEmpty()
+                ? Collections.emptyMap()
+                : zabbixClient.getRecoveryClocks(openEventIds);
+
+        watermark.setLastEventId(lastEventId);
+        watermark.setLastClock(lastClock);
+        int[] written = persister.persistEvents(hostsByZabbixId, newEvents, recoveryClocks, watermark);
+
+        System.out.println("Eventos: " + written[0] + " novos, " + written[1] + " resolvidos (watermark eventid " + lastEventId + ")");
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.dti.msa.service;
+
+/**
+ * Publicado pelo {@link HostService} quando um host é criado, alterado ou excluído.
+ * O coletor só remonta o plano de coleta depois do commit da transação.
+ */
+public record HostChangedEvent(Long hostId, Type type) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+}
@@ -8,7 +8,9 @@ import br.com.dti.msa.dto.HostDetailsDTO;
 import br.com.dti.msa.dto.HostSearchResultDTO;
 import br.com.dti.msa.dto.PublicHostStatusDTO;
 import br.com.dti.msa.dto.UpdateHostDTO;
+import br.com.dti.msa.exception.ZabbixApiException;
 import br.com.dti.msa.exception.ZabbixValidationException;
+import br.com.dti.msa.integration.zabbix.ZabbixCalls;
 import br.com.dti.msa.integration.zabbix.dto.ZabbixClient;
 import br.com.dti.msa.model.DefaultZabbixKey;
 import br.com.dti.msa.model.Host;
@@ -20,14 +22,18 @@ import br.com.dti.msa.model.RecentEvents;
 import br.com.dti.msa.repository.DefaultZabbixKeyRepository;
 import br.com.dti.msa.repository.HostRepository;
 import br.com.dti.msa.repository.MetricCurrentValueRepository;
+import br.com.dti.msa.repository.MetricCurrentValueWriter;
 import br.com.dti.msa.repository.MetricHistoryRepository;
 import br.com.dti.msa.repository.MetricRepository;
 import br.com.dti.msa.repository.RecentEventsRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -41,11 +47,15 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Service
@@ -59,6 +69,13 @@ public class HostService {
     @Autowired private RecentEventsRepository recentEventsRepository;
     @Autowired private DefaultZabbixKeyRepository defaultZabbixKeyRepository;
     @Autowired private MetricCurrentValueRepository metricCurrentValueRepository;
+    @Autowired private ZabbixItemResolver zabbixItemResolver;
+    @Autowired private MetricCurrentValueWriter currentValueWriter;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+
+    // Resolução de itemids depois do commit: uma de cada vez, fora da thread da requisição
+    private final ExecutorService itemResolution = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("msa-item-resolution").factory());
 
     /**
      * Retorna todos os hosts cadastrados.
@@ -276,6 +293,7 @@ public class HostService {
                     eventDto.setSeverity(event.getSeverity());
                     eventDto.setName(event.getName());
                     eventDto.setTimestamp(event.getTimestamp().format(formatter));
+                    eventDto.setResolved(event.isResolved());
                     return eventDto;
                 })
                 .collect(Collectors.toList());
@@ -520,10 +538,8 @@ public class HostService {
      */
     @Transactional
     public Host createAndValidateHost(CreateHostDTO dto) throws ZabbixValidationException {
-        // 1. VALIDAÇÃO DO HOST NO ZABBIX
-        if (!zabbixClient.hostExists(dto.getHostZabbixID())) {
-            throw new ZabbixValidationException("Host com Zabbix ID '" + dto.getHostZabbixID() + "' não encontrado no Zabbix.");
-        }
+        // 1. VALIDAÇÃO DO HOST NO ZABBIX (a chamada já sai agora e é conferida junto com as chaves, no passo 3)
+        CompletableFuture<Boolean> hostCheck = zabbixClient.hostExistsAsync(dto.getHostZabbixID());
 
         if (hostRepository.existsByZabbixId(dto.getHostZabbixID())) {
             throw new ZabbixValidationException("Já existe um host cadastrado no MSA com este Zabbix ID.");
@@ -539,6 +555,8 @@ public class HostService {
 
         // Prepara o set que vai guardar as novas configurações
         Set<HostMetricConfig> newConfigurations = new HashSet<>();
+        // Chaves a validar no Zabbix -> nome da métrica (para a mensagem de erro), na ordem do formulário
+        Map<String, String> keysToValidate = new LinkedHashMap<>();
         
         // PROCESSA AS MÉTRICAS SELECIONADAS
         // Itera sobre os NOMES DOS CHECKBOXES que vieram do formulário (ex: "memoria-ram")
@@ -561,12 +579,9 @@ public class HostService {
                 // Determina qual Zabbix Key usar
                 String zabbixKeyToUse = findZabbixKeyForMetric(metric, checkboxName, dto);
 
-                // Valida a chave no Zabbix
+                // A chave é validada no Zabbix depois, junto com as demais
                 if (zabbixKeyToUse != null && !zabbixKeyToUse.equalsIgnoreCase("zabbix_api")) {
-                    if (!zabbixClient.itemExistsOnHost(dto.getHostZabbixID(), zabbixKeyToUse)) {
-                        throw new ZabbixValidationException("A chave Zabbix '" + zabbixKeyToUse + 
-                            "' (para a métrica '" + metric.getName() + "') não foi encontrada no host.");
-                    }
+                    keysToValidate.putIfAbsent(zabbixKeyToUse, metric.getName());
                 }
 
                 // Cria a entidade de "Contrato" (a "cola")
@@ -575,6 +590,9 @@ public class HostService {
             }
         }
         
+        // 3. VALIDAÇÃO NO ZABBIX: host e chaves consultados ao mesmo tempo
+        validateOnZabbix(dto.getHostZabbixID(), hostCheck, keysToValidate);
+
         System.out.println("Validações OK! Salvando o host e " + newConfigurations.size() + " configurações de métrica...");
 
         // 4. PERSISTÊNCIA NO BANCO DE DADOS
@@ -583,7 +601,12 @@ public class HostService {
         
         // Salva o host. Devido ao "cascade = CascadeType.ALL" na entidade Host,
         // o JPA salvará automaticamente todas as 'HostMetricConfig' associadas.
-        return hostRepository.save(newHost);
+        Host savedHost = hostRepository.save(newHost);
+
+        // Já resolve os itemids para que o coletor não precise pesquisar por key_
+        // Os itemids são resolvidos depois do commit (onHostChanged)
+        eventPublisher.publishEvent(new HostChangedEvent(savedHost.getId(), HostChangedEvent.Type.CREATED));
+        return savedHost;
     }
 
     /**
@@ -595,6 +618,7 @@ public class HostService {
         
         // Busca o host existente no banco (usando a query otimizada)
         Host existingHost = findById(hostId);
+        Long previousZabbixId = existingHost.getZabbixId();
 
         // Atualiza os campos básicos
         existingHost.setName(dto.getHostName());
@@ -604,6 +628,7 @@ public class HostService {
 
         // CONVERTE NOMES DOS CHECKBOXES (DTO) PARA CHAVES DE MÉTRICAS REAIS (BANCO)
         Set<HostMetricConfig> newConfigurations = new HashSet<>();
+        Map<String, String> keysToValidate = new LinkedHashMap<>();
         for (String checkboxName : dto.getEnabledMetrics()) {
             
             List<String> metricKeys = metricCatalog.getMetricKeysForCheckbox(checkboxName);
@@ -618,12 +643,9 @@ public class HostService {
                 // Determina qual Zabbix Key usar (usando o DTO de Update)
                 String zabbixKeyToUse = findZabbixKeyForMetric(metric, checkboxName, dto);
 
-                // Valida a chave no Zabbix
+                // A chave é validada no Zabbix depois, junto com as demais
                 if (zabbixKeyToUse != null && !zabbixKeyToUse.equalsIgnoreCase("zabbix_api")) {
-                    if (!zabbixClient.itemExistsOnHost(dto.getHostZabbixID(), zabbixKeyToUse)) {
-                        throw new ZabbixValidationException("A chave Zabbix '" + zabbixKeyToUse + 
-                            "' (para a métrica '" + metric.getName() + "') não foi encontrada no host.");
-                    }
+                    keysToValidate.putIfAbsent(zabbixKeyToUse, metric.getName());
                 }
 
                 HostMetricConfig config = new HostMetricConfig(existingHost, metric, zabbixKeyToUse);
@@ -631,11 +653,21 @@ public class HostService {
             }
         }
 
+        // Valida todas as chaves no Zabbix de uma vez
+        validateOnZabbix(dto.getHostZabbixID(), null, keysToValidate);
+
         // ATUALIZA A COLEÇÃO (remove as antigas, adiciona as novas)
         existingHost.getMetricConfigs().clear();
         existingHost.getMetricConfigs().addAll(newConfigurations);
         
-        return hostRepository.save(existingHost);
+        Host savedHost = hostRepository.save(existingHost);
+
+        // Descarta os itemids do host antigo se o Zabbix ID mudou; os novos são resolvidos depois do commit
+        if (!previousZabbixId.equals(savedHost.getZabbixId())) {
+            zabbixItemResolver.forgetHost(previousZabbixId);
+        }
+        eventPublisher.publishEvent(new HostChangedEvent(savedHost.getId(), HostChangedEvent.Type.UPDATED));
+        return savedHost;
     }
 
     /**
@@ -644,14 +676,79 @@ public class HostService {
     @Transactional
     public void deleteHost(Long hostId) {
         // Verifica se o host existe antes de deletar para evitar erros
-        if (!hostRepository.existsById(hostId)) {
-            throw new EntityNotFoundException("Host não encontrado com ID: " + hostId);
-        }
+        Host host = hostRepository.findById(hostId)
+            .orElseThrow(() -> new EntityNotFoundException("Host não encontrado com ID: " + hostId));
         hostRepository.deleteById(hostId);
+        zabbixItemResolver.forgetHost(host.getZabbixId());
+        currentValueWriter.forgetHost(hostId);
+        eventPublisher.publishEvent(new HostChangedEvent(hostId, HostChangedEvent.Type.DELETED));
     }
 
     // --- MÉTODOS AUXILIARES ---
 
+    /**
+     * Valida no Zabbix o host (se 'hostCheck' for informado, já em andamento) e todas as chaves
+     * de uma vez: as chamadas item.get saem juntas, sem uma thread por chamada, e os resultados
+     * são conferidos na ordem do formulário, para o erro apontar a primeira chave inválida.
+     */
+    private void validateOnZabbix(Long zabbixId, CompletableFuture<Boolean> hostCheck, Map<String, String> metricNameByKey) throws ZabbixValidationException {
+        Map<String, CompletableFuture<Boolean>> itemChecks = new LinkedHashMap<>();
+        metricNameByKey.keySet().forEach(key -> itemChecks.put(key, zabbixClient.itemExistsOnHostAsync(zabbixId, key)));
+        CompletableFuture<Map<String, Boolean>> allItems = ZabbixCalls.allOf(itemChecks);
+
+        Map<String, Boolean> found;
+        try {
+            if (hostCheck != null && !ZabbixCalls.await(hostCheck)) {
+                allItems.cancel(true);
+                throw new ZabbixValidationException("Host com Zabbix ID '" + zabbixId + "' não encontrado no Zabbix.");
+            }
+            found = ZabbixCalls.await(allItems);
+        } catch (ZabbixApiException e) {
+            allItems.cancel(true);
+            throw new ZabbixValidationException("Não foi possível validar o host no Zabbix: " + e.getMessage());
+        }
+
+        for (Map.Entry<String, String> entry : metricNameByKey.entrySet()) {
+            if (!found.get(entry.getKey())) {
+                throw new ZabbixValidationException("A chave Zabbix '" + entry.getKey() +
+                    "' (para a métrica '" + entry.getValue() + "') não foi encontrada no host.");
+            }
+        }
+    }
+
+    /**
+     * Depois do commit de um cadastro/alteração, resolve os itemids do host em segundo plano.
+     * Fica fora da transação do cadastro: nenhuma conexão do banco fica presa durante a chamada
+     * ao Zabbix, e uma falha na gravação do cache não desfaz (nem derruba) o cadastro.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onHostChanged(HostChangedEvent event) {
+        if (event.type() == HostChangedEvent.Type.DELETED) return;
+        itemResolution.execute(() -> {
+            try {
+                hostRepository.findByIdWithFullMetrics(event.hostId()).ifPresent(this::refreshItemResolution);
+            } catch (Exception e) {
+                System.err.println("Falha ao carregar o host " + event.hostId() + " para resolver os itens: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Resolve os itemids das chaves configuradas do host e grava no cache 'zabbix_item_ref'.
+     * Uma falha aqui não impede o cadastro: o coletor resolve novamente no próximo ciclo.
+     */
+    private void refreshItemResolution(Host host) {
+        Set<String> zabbixKeys = host.getMetricConfigs().stream()
+            .map(HostMetricConfig::getZabbixKey)
+            .filter(key -> key != null && !key.equalsIgnoreCase("zabbix_api"))
+            .collect(Collectors.toSet());
+        try {
+            zabbixItemResolver.resolveHost(host.getZabbixId(), zabbixKeys);
+        } catch (Exception e) {
+            System.err.println("Falha ao resolver itens do host " + host.getName() + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Método auxiliar para o CREATE.
      * Descobre qual Zabbix Key usar:
@@ -4,11 +4,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
-import com.fasterxml.jackson.databind.JsonNode;
 
 import br.com.dti.msa.dto.ZabbixHealthCheckResponse;
+import br.com.dti.msa.integration.zabbix.ZabbixCalls;
+import br.com.dti.msa.integration.zabbix.dto.ZabbixClient;
 
 @Service
 public class ZabbixConnectionTesterService {
@@ -18,47 +17,31 @@ public class ZabbixConnectionTesterService {
     @Value("${zabbix.api.url}")
     private String zabbixApiUrl;
 
-    private final RestTemplate restTemplate;
+    private final ZabbixClient zabbixClient;
 
-    public ZabbixConnectionTesterService() {
-        this.restTemplate = new RestTemplate(); // Para simplicidade. O ideal é injetar como um Bean.
+    public ZabbixConnectionTesterService(ZabbixClient zabbixClient) {
+        // Mesmo caminho das demais chamadas: circuito, anteparo e single-flight (health checks
+        // simultâneos ou dentro de zabbix.api.coalesce.ttl-ms dividem uma única chamada)
+        this.zabbixClient = zabbixClient;
     }
 
     public ZabbixHealthCheckResponse testConnection() {
         try {
             log.info("Iniciando teste de conexão em tempo real com o Zabbix na URL: {}", zabbixApiUrl);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            // Payload simples para a chamada 'apiinfo.version' do Zabbix
-            String requestBody = """
-            {
-            "jsonrpc": "2.0",
-            "method": "apiinfo.version",
-            "params": [],
-            "id": 99
-            }
-            """;
-
-            HttpEntity<String> requestEntity = new HttpEntity<>(requestBody, headers);
-
-            // Executa a chamada POST
-            ResponseEntity<JsonNode> response = restTemplate.postForEntity(zabbixApiUrl, requestEntity, JsonNode.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null && response.getBody().has("result")) {
-                String zabbixVersion = response.getBody().get("result").asText();
-                log.info("Conexão com Zabbix bem-sucedida. Versão: {}", zabbixVersion);
-                return new ZabbixHealthCheckResponse("OK", "Conexão com o Zabbix estabelecida com sucesso.", zabbixVersion);
-            } else {
-                log.error("Resposta inesperada do Zabbix. Código: {}, Corpo: {}", response.getStatusCode(), response.getBody());
-                return new ZabbixHealthCheckResponse("ERROR", "Resposta inesperada do servidor Zabbix: " + response.getStatusCode());
+            // Chamada 'apiinfo.version' do Zabbix
+            String zabbixVersion = ZabbixCalls.await(zabbixClient.apiVersionAsync());
+            if (zabbixVersion == null) {
+                log.error("Resposta inesperada do Zabbix: versão ausente.");
+                return new ZabbixHealthCheckResponse("ERROR", "Resposta inesperada do servidor Zabbix: versão ausente.");
             }
+            log.info("Conexão com Zabbix bem-sucedida. Versão: {}", zabbixVersion);
+            return new ZabbixHealthCheckResponse("OK", "Conexão com o Zabbix estabelecida com sucesso.", zabbixVersion);
 
         } catch (Exception e) {
-            // Captura qualquer erro de conexão, timeout, DNS, etc.
+            // Captura qualquer erro de conexão, timeout, DNS, erro da API, circuito aberto, etc.
             log.error("Falha ao conectar com o Zabbix: {}", e.getMessage());
             return new ZabbixHealthCheckResponse("ERROR", "Não foi possível conectar ao Zabbix: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
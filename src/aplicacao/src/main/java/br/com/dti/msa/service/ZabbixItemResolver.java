@@ -0,0 +1,103 @@
+package br.com.dti.msa.service;
+
+import br.com.dti.msa.integration.zabbix.dto.ZabbixClient;
+import br.com.dti.msa.integration.zabbix.dto.ZabbixItemResponseDTO;
+import br.com.dti.msa.model.ZabbixItemRef;
+import br.com.dti.msa.repository.ZabbixItemRefRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache de resolução (host Zabbix, chave Zabbix) -> itemid.
+ * Mantém uma cópia em memória da tabela 'zabbix_item_ref' para que o coletor
+ * não precise consultar o banco nem pesquisar por key_ no Zabbix a cada ciclo.
+ */
+@Service
+public class ZabbixItemResolver {
+
+    @Autowired private ZabbixClient zabbixClient;
+    @Autowired private ZabbixItemRefRepository itemRefRepository;
+
+    // Chave do mapa: "<zabbixHostId>|<zabbixKey>"
+    private final Map<String, ZabbixItemRef> refs = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    /**
+     * Retorna o item já resolvido, se existir.
+     */
+    public Optional<ZabbixItemRef> find(Long zabbixHostId, String zabbixKey) {
+        ensureLoaded();
+        return Optional.ofNullable(refs.get(cacheKey(zabbixHostId, zabbixKey)));
+    }
+
+    /**
+     * Resolve (ou re-resolve) as chaves de um host no Zabbix com uma única chamada item.get
+     * e grava o resultado no cache persistente. Resoluções antigas do host que não fazem
+     * mais parte das chaves informadas são removidas.
+     *
+     * @return os itens retornados pelo Zabbix (já com lastvalue), indexados pela chave.
+     * @throws br.com.dti.msa.exception.ZabbixApiException se o Zabbix falhar (o cache fica como estava).
+     */
+    public Map<String, ZabbixItemResponseDTO> resolveHost(Long zabbixHostId, Collection<String> zabbixKeys) {
+        ensureLoaded();
+        if (zabbixKeys == null || zabbixKeys.isEmpty()) {
+            forgetHost(zabbixHostId);
+            return Collections.emptyMap();
+        }
+
+        Map<String, ZabbixItemResponseDTO> items = zabbixClient.getItemValuesForHost(zabbixHostId, zabbixKeys);
+        if (items.isEmpty()) {
+            // Nenhuma chave encontrada: mantém o que já estava resolvido.
+            return items;
+        }
+
+        List<ZabbixItemRef> resolved = new ArrayList<>();
+        for (ZabbixItemResponseDTO item : items.values()) {
+            resolved.add(new ZabbixItemRef(zabbixHostId, item.getKey(), Long.valueOf(item.getItemId()), item.getValueType()));
+        }
+
+        List<ZabbixItemRef> stale = itemRefRepository.findByZabbixHostId(zabbixHostId).stream()
+                .filter(ref -> !zabbixKeys.contains(ref.getZabbixKey()))
+                .toList();
+        if (!stale.isEmpty()) {
+            itemRefRepository.deleteAll(stale);
+            stale.forEach(ref -> refs.remove(cacheKey(ref.getZabbixHostId(), ref.getZabbixKey())));
+        }
+
+        itemRefRepository.saveAll(resolved);
+        resolved.forEach(ref -> refs.put(cacheKey(ref.getZabbixHostId(), ref.getZabbixKey()), ref));
+
+        System.out.println("  > " + resolved.size() + " itens resolvidos para o host Zabbix " + zabbixHostId);
+        return items;
+    }
+
+    /**
+     * Remove todas as resoluções de um host (ex: host excluído ou Zabbix ID alterado).
+     */
+    public void forgetHost(Long zabbixHostId) {
+        ensureLoaded();
+        itemRefRepository.deleteByZabbixHostId(zabbixHostId);
+        refs.values().removeIf(ref -> ref.getZabbixHostId().equals(zabbixHostId));
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            itemRefRepository.findAll().forEach(ref -> refs.put(cacheKey(ref.getZabbixHostId(), ref.getZabbixKey()), ref));
+            loaded = true;
+        }
+    }
+
+    private String cacheKey(Long zabbixHostId, String zabbixKey) {
+        return zabbixHostId + "|" + zabbixKey;
+    }
+}
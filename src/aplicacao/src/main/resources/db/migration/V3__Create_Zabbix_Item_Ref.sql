@@ -0,0 +1,13 @@
+-- Cache persistente da resolução (host Zabbix, chave Zabbix) -> itemid do Zabbix.
+-- Evita o 'search' por key_ (busca LIKE no Zabbix) a cada ciclo de coleta:
+-- o coletor passa a buscar os valores diretamente por 'itemids'.
+CREATE TABLE zabbix_item_ref (
+    zabbix_host_id BIGINT NOT NULL,
+    zabbix_key VARCHAR(255) NOT NULL,
+    item_id BIGINT NOT NULL,
+    value_type TINYINT NOT NULL,
+    resolved_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (zabbix_host_id, zabbix_key)
+);
+
+CREATE INDEX idx_zabbix_item_ref_item ON zabbix_item_ref (item_id);
@@ -0,0 +1,22 @@
+-- Sincronização incremental de eventos do Zabbix.
+-- 'recent_events' deixa de ser um top-5 regravado a cada ciclo e passa a ser uma linha do tempo:
+-- cada evento é identificado pelo eventid do Zabbix e é apenas marcado como resolvido.
+
+-- As linhas antigas não têm eventid e seriam duplicadas pela nova sincronização.
+DELETE FROM recent_events;
+
+ALTER TABLE recent_events
+    ADD COLUMN zabbix_event_id BIGINT NULL,
+    ADD COLUMN resolved BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD COLUMN resolved_at DATETIME(6) NULL,
+    ADD UNIQUE KEY uk_events_zabbix_event (zabbix_event_id);
+
+CREATE INDEX idx_events_open ON recent_events (resolved, zabbix_event_id);
+
+-- Ponto de parada (watermark) da sincronização: último eventid/clock já gravado.
+CREATE TABLE event_sync_watermark (
+    id VARCHAR(50) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL,
+    last_clock BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
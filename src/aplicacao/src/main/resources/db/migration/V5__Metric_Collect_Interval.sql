@@ -0,0 +1,20 @@
+-- Intervalo de coleta por métrica (padrão 60s) e sobrescrita opcional por host.
+-- Métricas que quase não mudam deixam de ser buscadas no Zabbix a cada ciclo.
+ALTER TABLE metrics
+    ADD COLUMN collect_interval_seconds INT NOT NULL DEFAULT 60;
+
+ALTER TABLE host_metric_config
+    ADD COLUMN collect_interval_seconds INT NULL;
+
+-- Informações do sistema: praticamente estáticas
+UPDATE metrics SET collect_interval_seconds = 3600
+WHERE metric_key IN ('os-nome', 'os-arch');
+
+-- Capacidades totais: mudam apenas com alteração de hardware/configuração
+UPDATE metrics SET collect_interval_seconds = 900
+WHERE metric_key IN ('memoria-ram-total', 'memoria-swap-total', 'armazenamento-root-total',
+                     'armazenamento-boot-total', 'cpu-processos-max');
+
+-- Uso de disco e tempo ativo: variam devagar
+UPDATE metrics SET collect_interval_seconds = 300
+WHERE metric_key IN ('armazenamento-root-usado', 'armazenamento-boot-usado', 'tempo-ativo');
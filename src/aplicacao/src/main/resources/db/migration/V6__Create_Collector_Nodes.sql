@@ -0,0 +1,11 @@
+-- Nós do coletor (instâncias do MSA) e seus leases.
+-- Cada nó renova 'last_heartbeat' periodicamente; um nó cujo lease expirou é considerado morto
+-- e os hosts dele são redistribuídos entre os nós vivos (hash consistente sobre hosts.id).
+-- Os horários usam o relógio do banco (NOW(6)), então relógios diferentes entre as máquinas não importam.
+CREATE TABLE collector_nodes (
+    node_id VARCHAR(100) PRIMARY KEY,
+    started_at DATETIME(6) NOT NULL,
+    last_heartbeat DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_collector_nodes_heartbeat ON collector_nodes (last_heartbeat);
@@ -0,0 +1,71 @@
+package br.com.dti.msa.integration.zabbix;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ZabbixAdaptiveLimitTest {
+
+    private static final String KIND = "item.get#6";
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(300);
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void testOnSample_LatenciaEstavelEmUso_SobeUmACadaLimiteRespostas() {
+        ZabbixAdaptiveLimit limit = new ZabbixAdaptiveLimit(4, 2, 32, 2.0, 0.5, WINDOW);
+
+        // +1/limite por resposta: 4 -> 4.25 -> 4.49 -> 4.71 -> 4.92 -> 5.12
+        for (int i = 0; i < 4; i++) limit.onSample(KIND, RTT, 4, i);
+        assertEquals(4, limit.limit());
+        limit.onSample(KIND, RTT, 4, 4);
+        assertEquals(5, limit.limit());
+    }
+
+    @Test
+    void testOnSample_LimitePoucoUsado_NaoSobe() {
+        ZabbixAdaptiveLimit limit = new ZabbixAdaptiveLimit(8, 2, 32, 2.0, 0.5, WINDOW);
+        for (int i = 0; i < 100; i++) limit.onSample(KIND, RTT, 3, i); // Menos da metade ocupada
+        assertEquals(8, limit.limit());
+    }
+
+    @Test
+    void testOnSample_LatenciaDisparou_ReduzNoMaximoUmaVezPorLimiteRespostas() {
+        ZabbixAdaptiveLimit limit = new ZabbixAdaptiveLimit(4, 1, 32, 2.0, 0.5, WINDOW);
+        for (int i = 0; i < 4; i++) limit.onSample(KIND, RTT, 0, i); // Referência de 10 ms
+
+        // 10x a referência: o gradiente passa da tolerância e o limite cai pela metade uma vez
+        long slow = RTT * 10;
+        limit.onSample(KIND, slow, 0, 10);
+        assertEquals(2, limit.limit());
+        limit.onSample(KIND, slow, 0, 11);
+        assertEquals(2, limit.limit()); // Mesma leva lenta: ainda não houve 'limite' respostas
+        limit.onSample(KIND, slow, 0, 12);
+        assertEquals(1, limit.limit());
+    }
+
+    @Test
+    void testOnDrop_QuedasSeguidas_ParaNoMinimo() {
+        ZabbixAdaptiveLimit limit = new ZabbixAdaptiveLimit(10, 3, 32, 2.0, 0.5, WINDOW);
+
+        for (int i = 0; i < 9; i++) limit.onDrop();
+        assertEquals(10, limit.limit());
+        limit.onDrop();
+        assertEquals(5, limit.limit());
+
+        for (int i = 0; i < 100; i++) limit.onDrop();
+        assertEquals(3, limit.limit());
+    }
+
+    @Test
+    void testOnSample_SobeAteOMaximo_EConstrutorRespeitaOsLimites() {
+        ZabbixAdaptiveLimit limit = new ZabbixAdaptiveLimit(4, 2, 6, 2.0, 0.5, WINDOW);
+        for (int i = 0; i < 1000; i++) limit.onSample(KIND, RTT, 6, i);
+        assertEquals(6, limit.limit());
+
+        assertEquals(6, new ZabbixAdaptiveLimit(50, 2, 6, 2.0, 0.5, WINDOW).limit());
+        assertEquals(2, new ZabbixAdaptiveLimit(0, 2, 6, 2.0, 0.5, WINDOW).limit());
+        assertEquals(6, new ZabbixAdaptiveLimit(8, 10, 6, 2.0, 0.5, WINDOW).limit()); // min > max: vale o max
+    }
+}
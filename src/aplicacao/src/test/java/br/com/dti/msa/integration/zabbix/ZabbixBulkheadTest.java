@@ -0,0 +1,86 @@
+package br.com.dti.msa.integration.zabbix;
+
+import br.com.dti.msa.exception.ZabbixTransientException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZabbixBulkheadTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // Chamadas iniciadas pelo anteparo, completadas à mão pelo teste
+    private final List<CompletableFuture<String>> started = new ArrayList<>();
+
+    private CompletableFuture<String> submit(ZabbixBulkhead bulkhead) {
+        return bulkhead.submit("host.get#1", () -> {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            started.add(call);
+            return call;
+        });
+    }
+
+    @Test
+    void testSubmit_LimiteEFilaCheios_RecusaNaHora() {
+        // Limite fixo de 2 e fila de 1
+        ZabbixBulkhead bulkhead = new ZabbixBulkhead(registry, 2, 1, false, 2, 2, 2.0, 0.9, 300);
+
+        CompletableFuture<String> first = submit(bulkhead);
+        submit(bulkhead);
+        CompletableFuture<String> queued = submit(bulkhead);
+        assertEquals(2, started.size());
+        assertEquals(1, bulkhead.queued());
+
+        CompletableFuture<String> rejected = submit(bulkhead);
+        assertTrue(rejected.isCompletedExceptionally());
+        assertThrows(ZabbixBulkhead.RejectedException.class, () -> ZabbixCalls.await(rejected));
+        assertEquals(1.0, registry.get("msa.zabbix.bulkhead.rejected").counter().count());
+
+        // Uma vaga liberada inicia a chamada da fila
+        started.get(0).complete("ok");
+        assertEquals("ok", first.join());
+        assertEquals(3, started.size());
+        assertEquals(0, bulkhead.queued());
+        assertFalse(queued.isDone());
+    }
+
+    @Test
+    void testSubmit_CanceladaNaFila_NaoChegaAoZabbix() {
+        ZabbixBulkhead bulkhead = new ZabbixBulkhead(registry, 1, 10, false, 1, 1, 2.0, 0.9, 300);
+        submit(bulkhead);
+        CompletableFuture<String> queued = submit(bulkhead);
+
+        queued.cancel(true);
+        started.get(0).complete("ok");
+
+        assertEquals(1, started.size());
+        assertEquals(0, bulkhead.inFlight());
+        assertEquals(0, bulkhead.queued());
+    }
+
+    @Test
+    void testSubmit_FalhasTransitorias_ReduzemOLimiteNoGauge() {
+        // Adaptativo: começa em 4, mínimo 2, reduz pela metade
+        ZabbixBulkhead bulkhead = new ZabbixBulkhead(registry, 32, 100, true, 4, 2, 2.0, 0.5, 300);
+        assertEquals(4.0, registry.get("msa.zabbix.limit.current").gauge().value());
+
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 4; i++) calls.add(submit(bulkhead));
+        for (CompletableFuture<String> call : new ArrayList<>(started)) {
+            call.completeExceptionally(new ZabbixTransientException("HTTP 503", new IOException("503")));
+        }
+        calls.forEach(call -> assertTrue(call.isCompletedExceptionally()));
+
+        assertEquals(2, bulkhead.currentLimit());
+        assertEquals(2.0, registry.get("msa.zabbix.limit.current").gauge().value());
+        assertEquals(0, bulkhead.inFlight());
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.dti.msa.integration.zabbix;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZabbixCircuitBreakerTest {
+
+    private final IOException falha = new IOException("Connection refused");
+
+    private ZabbixCircuitBreaker breaker(long openSeconds) {
+        // Janela de 4 chamadas, abre com 50% de falhas, 2 sondagens no meio-aberto
+        return new ZabbixCircuitBreaker(new SimpleMeterRegistry(), true, 4, 4, 50, openSeconds, 2);
+    }
+
+    @Test
+    void testOnFailure_TaxaDeFalhasAtingida_AbreERecusaChamadas() {
+        ZabbixCircuitBreaker breaker = breaker(60);
+
+        breaker.onSuccess();
+        breaker.onFailure(falha);
+        breaker.onSuccess();
+        assertEquals(ZabbixCircuitBreaker.State.CLOSED, breaker.state()); // Menos que o mínimo de chamadas
+
+        breaker.onFailure(falha);
+        assertEquals(ZabbixCircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.allowsCalls());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void testTryAcquire_TempoAbertoEsgotado_SondagensFecham() {
+        ZabbixCircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) breaker.onFailure(falha);
+        assertTrue(breaker.allowsCalls());
+
+        // Meio-aberto: só as 2 sondagens passam
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertEquals(ZabbixCircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertEquals(ZabbixCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testOnFailure_FalhaNaSondagem_ReabreOCircuito() {
+        ZabbixCircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) breaker.onFailure(falha);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure(falha);
+        assertEquals(ZabbixCircuitBreaker.State.OPEN, breaker.state());
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.dti.msa.integration.zabbix;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZabbixHedgingTest {
+
+    private static final String KIND = "item.get#6";
+
+    private ZabbixHedging hedging(boolean enabled, double maxRatio, double burst) {
+        // p95, no mínimo 10 amostras, atraso mínimo de 20 ms
+        return new ZabbixHedging(new SimpleMeterRegistry(), enabled, 0.95, maxRatio, burst, 10, 20);
+    }
+
+    private void record(ZabbixHedging hedging, long fromMillis, long toMillis) {
+        for (long millis = fromMillis; millis <= toMillis; millis++) {
+            hedging.record(KIND, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    @Test
+    void testDelayFor_DesligadoOuSemAmostras_SemCopia() {
+        ZabbixHedging disabled = hedging(false, 0.5, 5);
+        record(disabled, 1, 100);
+        assertNull(disabled.delayFor(KIND));
+
+        ZabbixHedging enabled = hedging(true, 0.5, 5);
+        record(enabled, 1, 9); // Abaixo de min-samples
+        assertNull(enabled.delayFor(KIND));
+        assertNull(enabled.delayFor("host.get#1")); // Tipo sem nenhuma amostra
+    }
+
+    @Test
+    void testDelayFor_ComAmostras_UsaOPercentilComPisoMinimo() {
+        ZabbixHedging hedging = hedging(true, 0.5, 5);
+        record(hedging, 1, 1000);
+        Duration delay = hedging.delayFor(KIND);
+        // p95 de 1..1000 ms (o histograma do Micrometer aproxima o valor)
+        assertTrue(delay.toMillis() >= 850 && delay.toMillis() <= 1100, "atraso " + delay);
+
+        ZabbixHedging fast = hedging(true, 0.5, 5);
+        record(fast, 1, 5);
+        record(fast, 1, 5);
+        assertEquals(Duration.ofMillis(20), fast.delayFor(KIND));
+    }
+
+    @Test
+    void testTryHedge_Orcamento_RendeMaxRatioPorChamadaAteOBurst() {
+        ZabbixHedging hedging = hedging(true, 0.25, 2);
+
+        // Cada chamada elegível rende 0.25 de cópia: a 4ª completa uma
+        for (int i = 0; i < 3; i++) hedging.delayFor(KIND);
+        assertFalse(hedging.tryHedge());
+        hedging.delayFor(KIND);
+        assertTrue(hedging.tryHedge());
+        assertFalse(hedging.tryHedge());
+
+        // Muitas chamadas sem lentidão acumulam no máximo 'burst' cópias
+        for (int i = 0; i < 100; i++) hedging.delayFor(KIND);
+        assertTrue(hedging.tryHedge());
+        assertTrue(hedging.tryHedge());
+        assertFalse(hedging.tryHedge());
+    }
+}
@@ -0,0 +1,152 @@
+package br.com.dti.msa.integration.zabbix.dto;
+
+import br.com.dti.msa.exception.ZabbixApiException;
+import br.com.dti.msa.integration.zabbix.ZabbixBulkhead;
+import br.com.dti.msa.integration.zabbix.ZabbixCalls;
+import br.com.dti.msa.integration.zabbix.ZabbixCircuitBreaker;
+import br.com.dti.msa.integration.zabbix.ZabbixHedging;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ZabbixClientCoalescingTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HttpClient httpClient = mock(HttpClient.class);
+    // Trocas HTTP enviadas, completadas à mão pelo teste
+    private final List<CompletableFuture<HttpResponse<InputStream>>> exchanges = new CopyOnWriteArrayList<>();
+    private ZabbixClient client;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            CompletableFuture<HttpResponse<InputStream>> exchange = new CompletableFuture<>();
+            exchanges.add(exchange);
+            return exchange;
+        });
+
+        client = new ZabbixClient();
+        ReflectionTestUtils.setField(client, "zabbixApiUrl", "http://zabbix.test/api_jsonrpc.php");
+        ReflectionTestUtils.setField(client, "authToken", "token");
+        ReflectionTestUtils.setField(client, "callTimeoutSeconds", 5L);
+        ReflectionTestUtils.setField(client, "httpClient", httpClient);
+        ReflectionTestUtils.setField(client, "breaker", new ZabbixCircuitBreaker(registry, true, 20, 10, 50, 30, 3));
+        ReflectionTestUtils.setField(client, "bulkhead", new ZabbixBulkhead(registry, 32, 1000, false, 32, 32, 2.0, 0.9, 300));
+        ReflectionTestUtils.setField(client, "hedging", new ZabbixHedging(registry, false, 0.95, 0.05, 5, 50, 20));
+        ReflectionTestUtils.setField(client, "meterRegistry", registry);
+        ReflectionTestUtils.setField(client, "retryMaxAttempts", 1);
+        ReflectionTestUtils.setField(client, "coalesceEnabled", true);
+        ReflectionTestUtils.setField(client, "coalesceTtlMillis", 0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<InputStream> response(int status, String body) {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.body()).thenReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    private double coalesced() {
+        return registry.find("msa.zabbix.coalesced").counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    @Test
+    void testHostExistsAsync_ChamadasIdenticasSimultaneas_UmaUnicaTroca() {
+        int n = 10;
+        List<CompletableFuture<Boolean>> calls = new ArrayList<>();
+        for (int i = 0; i < n; i++) calls.add(client.hostExistsAsync(42L));
+
+        assertEquals(1, exchanges.size());
+        exchanges.get(0).complete(response(200, "{\"jsonrpc\":\"2.0\",\"result\":\"1\",\"id\":1}"));
+
+        calls.forEach(call -> assertTrue(ZabbixCalls.await(call)));
+        assertEquals(n - 1, coalesced());
+        // Tamanho e tempo da resposta vão para as métricas por método, uma vez por troca
+        assertEquals(1, registry.get("msa.zabbix.response.bytes").tag("method", "host.get").summary().count());
+        assertEquals(1, registry.get("msa.zabbix.response.time").tag("method", "host.get").timer().count());
+
+        // Sem TTL: depois de concluída, a mesma leitura volta ao Zabbix
+        client.hostExistsAsync(42L);
+        assertEquals(2, exchanges.size());
+    }
+
+    @Test
+    void testHostExistsAsync_ParamsDiferentes_NaoCompartilham() {
+        client.hostExistsAsync(1L);
+        client.hostExistsAsync(2L);
+        client.itemExistsOnHostAsync(1L, "system.cpu.util");
+
+        assertEquals(3, exchanges.size());
+        assertEquals(0, coalesced());
+    }
+
+    @Test
+    void testApiVersionAsync_DentroDoTtl_ReaproveitaResultado() throws Exception {
+        ReflectionTestUtils.setField(client, "coalesceTtlMillis", 150L);
+        CompletableFuture<String> first = client.apiVersionAsync();
+        exchanges.get(0).complete(response(200, "{\"jsonrpc\":\"2.0\",\"result\":\"7.0.0\",\"id\":99}"));
+        assertEquals("7.0.0", ZabbixCalls.await(first));
+
+        assertEquals("7.0.0", ZabbixCalls.await(client.apiVersionAsync()));
+        assertEquals(1, exchanges.size());
+        assertEquals(1, coalesced());
+
+        // TTL esgotado: a entrada sai do mapa e a próxima chamada vai ao Zabbix
+        TimeUnit.MILLISECONDS.sleep(300);
+        client.apiVersionAsync();
+        assertEquals(2, exchanges.size());
+    }
+
+    @Test
+    void testHostExistsAsync_FalhaCompartilhada_NaoFicaGuardada() {
+        ReflectionTestUtils.setField(client, "coalesceTtlMillis", 60_000L);
+        CompletableFuture<Boolean> first = client.hostExistsAsync(42L);
+        CompletableFuture<Boolean> second = client.hostExistsAsync(42L);
+        exchanges.get(0).complete(response(200,
+                "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32602,\"message\":\"Invalid params.\",\"data\":\"x\"},\"id\":1}"));
+
+        assertThrows(ZabbixApiException.class, () -> ZabbixCalls.await(first));
+        assertThrows(ZabbixApiException.class, () -> ZabbixCalls.await(second));
+
+        // Mesmo com TTL longo, a falha não é reaproveitada
+        client.hostExistsAsync(42L);
+        assertEquals(2, exchanges.size());
+    }
+
+    @Test
+    void testHostExistsAsync_Cancelamento_SoAbortaQuandoNinguemMaisEspera() {
+        CompletableFuture<Boolean> first = client.hostExistsAsync(42L);
+        CompletableFuture<Boolean> second = client.hostExistsAsync(42L);
+        CompletableFuture<HttpResponse<InputStream>> exchange = exchanges.get(0);
+
+        first.cancel(true);
+        assertFalse(exchange.isDone());
+
+        second.cancel(true);
+        assertTrue(exchange.isCancelled());
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.dti.msa.integration.zabbix.dto;
+
+import br.com.dti.msa.integration.zabbix.ZabbixBulkhead;
+import br.com.dti.msa.integration.zabbix.ZabbixCalls;
+import br.com.dti.msa.integration.zabbix.ZabbixCircuitBreaker;
+import br.com.dti.msa.integration.zabbix.ZabbixHedging;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ZabbixClientHedgingTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HttpClient httpClient = mock(HttpClient.class);
+    // Envios HTTP (original e cópias), completados à mão pelo teste
+    private final List<CompletableFuture<HttpResponse<InputStream>>> sends = new CopyOnWriteArrayList<>();
+    private ZabbixHedging hedging;
+    private ZabbixClient client;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            CompletableFuture<HttpResponse<InputStream>> send = new CompletableFuture<>();
+            sends.add(send);
+            return send;
+        });
+
+        // Orçamento generoso e atraso mínimo de 20 ms, para a cópia sair logo
+        hedging = new ZabbixHedging(registry, true, 0.95, 1.0, 5, 10, 20);
+        for (int i = 0; i < 50; i++) hedging.record("host.get#1", TimeUnit.MILLISECONDS.toNanos(1));
+
+        client = new ZabbixClient();
+        ReflectionTestUtils.setField(client, "zabbixApiUrl", "http://zabbix.test/api_jsonrpc.php");
+        ReflectionTestUtils.setField(client, "authToken", "token");
+        ReflectionTestUtils.setField(client, "callTimeoutSeconds", 5L);
+        ReflectionTestUtils.setField(client, "httpClient", httpClient);
+        ReflectionTestUtils.setField(client, "breaker", new ZabbixCircuitBreaker(registry, true, 20, 10, 50, 30, 3));
+        ReflectionTestUtils.setField(client, "hedging", hedging);
+        ReflectionTestUtils.setField(client, "meterRegistry", registry);
+        ReflectionTestUtils.setField(client, "retryMaxAttempts", 1);
+    }
+
+    private ZabbixBulkhead bulkhead(int maxConcurrent) {
+        ZabbixBulkhead bulkhead = new ZabbixBulkhead(registry, maxConcurrent, 1000, false, maxConcurrent, maxConcurrent, 2.0, 0.9, 300);
+        ReflectionTestUtils.setField(client, "bulkhead", bulkhead);
+        return bulkhead;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<InputStream> response(String body) {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    private void awaitSends(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (sends.size() < count && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    @Test
+    void testHostExistsAsync_CopiaResponde_CancelaOOriginalEDevolveAVaga() throws Exception {
+        ZabbixBulkhead bulkhead = bulkhead(4);
+        CompletableFuture<Boolean> call = client.hostExistsAsync(42L);
+
+        awaitSends(2);
+        assertEquals(2, sends.size());
+        assertEquals(2, bulkhead.inFlight()); // A cópia ocupa a sua própria vaga
+
+        sends.get(1).complete(response("{\"jsonrpc\":\"2.0\",\"result\":\"1\",\"id\":1}"));
+        assertTrue(ZabbixCalls.await(call));
+        assertTrue(sends.get(0).isCancelled());
+        assertEquals(1.0, registry.get("msa.zabbix.hedge.won").counter().count());
+        assertEquals(0, bulkhead.inFlight());
+    }
+
+    @Test
+    void testHostExistsAsync_AnteparoSemFolga_NaoEnviaCopia() throws Exception {
+        ZabbixBulkhead bulkhead = bulkhead(1); // O original já ocupa a única vaga
+        CompletableFuture<Boolean> call = client.hostExistsAsync(42L);
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (registry.get("msa.zabbix.hedge.skipped").counter().count() == 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(1.0, registry.get("msa.zabbix.hedge.skipped").counter().count());
+        assertEquals(1, sends.size());
+        assertEquals(0.0, registry.get("msa.zabbix.hedge.sent").counter().count());
+
+        sends.get(0).complete(response("{\"jsonrpc\":\"2.0\",\"result\":\"1\",\"id\":1}"));
+        assertTrue(ZabbixCalls.await(call));
+        assertEquals(0, bulkhead.inFlight());
+    }
+}
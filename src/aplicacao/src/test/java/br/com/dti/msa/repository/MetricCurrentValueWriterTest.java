@@ -0,0 +1,119 @@
+package br.com.dti.msa.repository;
+
+import br.com.dti.msa.model.MetricTextValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MetricCurrentValueWriterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private MetricCurrentValueWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new MetricCurrentValueWriter(jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "batchSize", 1000);
+        // Todas as linhas do UPDATE existem: devolve o número de pares (host, métrica) do IN
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation ->
+                (invocation.getArguments().length - 2) / 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<MetricTextValue> upserted() {
+        ArgumentCaptor<Collection<MetricTextValue>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), eq(1000), any(ParameterizedPreparedStatementSetter.class));
+        return rows.getValue();
+    }
+
+    @Test
+    void testWrite_ValoresRepetidos_SoRenovaOLastUpdated() {
+        List<MetricTextValue> values = List.of(new MetricTextValue(1L, 10L, "Linux"), new MetricTextValue(1L, 11L, "x86_64"));
+
+        assertEquals(2, writer.write(values, NOW));
+        assertEquals(2, upserted().size());
+
+        // Mesmo valor no ciclo seguinte: nenhum upsert, um único UPDATE para os dois
+        clearInvocations(jdbcTemplate);
+        assertEquals(0, writer.write(values, NOW.plusMinutes(1)));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testWrite_UmValorMudou_UpsertSoDele() {
+        writer.write(List.of(new MetricTextValue(1L, 10L, "Linux"), new MetricTextValue(1L, 11L, "x86_64")), NOW);
+        clearInvocations(jdbcTemplate);
+
+        assertEquals(1, writer.write(List.of(new MetricTextValue(1L, 10L, "Windows"), new MetricTextValue(1L, 11L, "x86_64")), NOW));
+
+        Collection<MetricTextValue> rows = upserted();
+        assertEquals(List.of(new MetricTextValue(1L, 10L, "Windows")), List.copyOf(rows));
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testWrite_LinhaSumiuDoBanco_RecarregaOCacheEReinsere() {
+        List<MetricTextValue> values = List.of(new MetricTextValue(1L, 10L, "Linux"));
+        writer.write(values, NOW);
+
+        // A linha foi apagada fora do coletor: o UPDATE não encontra nada
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(0);
+        writer.write(values, NOW.plusMinutes(1));
+
+        // O cache é recarregado do banco (vazio) e o valor volta a ser inserido
+        clearInvocations(jdbcTemplate);
+        assertEquals(1, writer.write(values, NOW.plusMinutes(2)));
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        assertEquals(1, upserted().size());
+    }
+
+    @Test
+    void testRetain_HostMudouDeNoEVoltou_ValorERegravado() {
+        List<MetricTextValue> values = List.of(new MetricTextValue(1L, 10L, "Linux"), new MetricTextValue(2L, 10L, "Linux"));
+        writer.write(values, NOW);
+
+        // O host 1 passou para outro nó (que pode ter gravado outro valor) e depois voltou
+        writer.retain(Set.of(2L));
+        clearInvocations(jdbcTemplate);
+        assertEquals(1, writer.write(values, NOW.plusMinutes(1)));
+
+        assertEquals(List.of(new MetricTextValue(1L, 10L, "Linux")), List.copyOf(upserted()));
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class)); // Só o host 2 é renovado
+    }
+
+    @Test
+    void testWrite_Upsert_UsaAliasDeLinha() {
+        writer.write(List.of(new MetricTextValue(1L, 10L, "Linux")), NOW);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertTrue(sql.getValue().contains(" AS new ON DUPLICATE KEY UPDATE current_value = new.current_value"));
+        assertFalse(sql.getValue().contains("VALUES(current_value)"));
+    }
+}
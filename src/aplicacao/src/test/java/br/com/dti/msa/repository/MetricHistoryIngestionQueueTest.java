@@ -0,0 +1,159 @@
+package br.com.dti.msa.repository;
+
+import br.com.dti.msa.model.MetricSample;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class MetricHistoryIngestionQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private final MetricHistoryBatchWriter writer = mock(MetricHistoryBatchWriter.class);
+    // Amostras que chegaram ao "banco", na ordem dos lotes
+    private final List<List<MetricSample>> written = new CopyOnWriteArrayList<>();
+    private MetricHistoryIngestionQueue queue;
+
+    private Path wal() {
+        return dir.resolve("history.wal");
+    }
+
+    private MetricHistoryIngestionQueue queue(int maxBatch, long shutdownTimeoutSeconds) {
+        MetricHistoryIngestionQueue queue = new MetricHistoryIngestionQueue(writer, new SimpleMeterRegistry(), 1000);
+        ReflectionTestUtils.setField(queue, "walEnabled", true);
+        ReflectionTestUtils.setField(queue, "walPath", wal().toString());
+        ReflectionTestUtils.setField(queue, "walFsync", false);
+        ReflectionTestUtils.setField(queue, "maxBatch", maxBatch);
+        ReflectionTestUtils.setField(queue, "lingerMillis", 0L);
+        ReflectionTestUtils.setField(queue, "shutdownTimeoutSeconds", shutdownTimeoutSeconds);
+        return queue;
+    }
+
+    private void recordWrites() {
+        doAnswer(invocation -> {
+            written.add(List.copyOf(invocation.<List<MetricSample>>getArgument(0)));
+            return 0;
+        }).when(writer).write(anyList());
+    }
+
+    private List<MetricSample> samples(int from, int count) {
+        List<MetricSample> samples = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            samples.add(new MetricSample(1, i, LocalDateTime.of(2025, 1, 1, 0, 0).plusSeconds(i), i));
+        }
+        return samples;
+    }
+
+    private List<MetricSample> allWritten() {
+        return written.stream().flatMap(List::stream).toList();
+    }
+
+    private void awaitWritten(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (allWritten().size() < count && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) queue.shutdown();
+    }
+
+    @Test
+    void testStart_WalDeExecucaoAnterior_RegravaEmLotesLimitadosEEsvazia() throws Exception {
+        try (MetricSampleJournal journal = new MetricSampleJournal(wal(), false)) {
+            journal.append(samples(0, 5)); // Sobrou de uma execução que caiu
+        }
+        recordWrites();
+
+        queue = queue(2, 5);
+        queue.start();
+        awaitWritten(5);
+        queue.shutdown();
+        queue = null;
+
+        assertEquals(samples(0, 5), allWritten());
+        assertTrue(written.stream().allMatch(batch -> batch.size() <= 2));
+        assertEquals(0, Files.size(wal()));
+    }
+
+    @Test
+    void testCheckpoint_FilaComAmostras_NaoEsvaziaOWal() throws Exception {
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        List<Long> walSizeAtSecondWrite = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            if (firstWriteStarted.getCount() > 0) {
+                firstWriteStarted.countDown();
+                releaseFirstWrite.await(5, TimeUnit.SECONDS);
+            } else if (walSizeAtSecondWrite.isEmpty()) {
+                // O checkpoint depois do 1º lote já passou com a 2ª amostra ainda na fila
+                walSizeAtSecondWrite.add(Files.size(wal()));
+            }
+            written.add(List.copyOf(invocation.<List<MetricSample>>getArgument(0)));
+            return 0;
+        }).when(writer).write(anyList());
+
+        queue = queue(1, 5);
+        queue.start();
+        queue.enqueue(samples(0, 1));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+        queue.enqueue(samples(1, 1));
+        releaseFirstWrite.countDown();
+        awaitWritten(2);
+
+        assertEquals(List.of(2L * MetricSampleJournal.RECORD_BYTES), walSizeAtSecondWrite);
+        queue.shutdown();
+        queue = null;
+        assertEquals(0, Files.size(wal()));
+    }
+
+    @Test
+    void testShutdown_EsvaziaAFilaAntesDeParar() throws Exception {
+        recordWrites();
+        queue = queue(50, 5);
+        queue.start();
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue(samples(i * 20, 20));
+        }
+        queue.shutdown();
+        queue = null;
+
+        assertEquals(samples(0, 200), allWritten());
+        assertEquals(0, Files.size(wal()));
+    }
+
+    @Test
+    void testShutdown_BancoFora_AmostrasFicamNoWal() throws Exception {
+        doThrow(new IllegalStateException("MySQL fora")).when(writer).write(anyList());
+        queue = queue(50, 0);
+        queue.start();
+        queue.enqueue(samples(0, 10));
+        queue.shutdown();
+        queue = null;
+
+        try (MetricSampleJournal journal = new MetricSampleJournal(wal(), false)) {
+            assertEquals(samples(0, 10), journal.readAll());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.dti.msa.repository;
+
+import br.com.dti.msa.model.MetricSample;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricSampleJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private List<MetricSample> samples(int count) {
+        List<MetricSample> samples = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 14, 30, 15, 123_456_000);
+        for (int i = 0; i < count; i++) {
+            samples.add(new MetricSample(i + 1, 100 + i, base.plusSeconds(i), i * 1.5));
+        }
+        return samples;
+    }
+
+    @Test
+    void testReadAll_AposQueda_DevolveAsAmostrasAnexadas() throws Exception {
+        Path wal = dir.resolve("history.wal");
+        MetricSampleJournal journal = new MetricSampleJournal(wal, true);
+        journal.append(samples(3));
+        journal.append(samples(5).subList(3, 5));
+        journal.close(); // "Queda": nada foi gravado no banco nem esvaziado
+
+        try (MetricSampleJournal reopened = new MetricSampleJournal(wal, true)) {
+            assertEquals(samples(5), reopened.readAll());
+        }
+    }
+
+    @Test
+    void testAbrir_RegistroIncompletoNoFim_CortaEContinuaAnexando() throws Exception {
+        Path wal = dir.resolve("history.wal");
+        try (MetricSampleJournal journal = new MetricSampleJournal(wal, false)) {
+            journal.append(samples(3));
+        }
+        // Queda no meio da escrita do 4º registro
+        Files.write(wal, new byte[MetricSampleJournal.RECORD_BYTES - 5], StandardOpenOption.APPEND);
+
+        try (MetricSampleJournal journal = new MetricSampleJournal(wal, false)) {
+            assertEquals(3L * MetricSampleJournal.RECORD_BYTES, journal.size());
+            journal.append(samples(4).subList(3, 4));
+            assertEquals(samples(4), journal.readAll());
+        }
+    }
+
+    @Test
+    void testAbrir_CrcErradoNoUltimoRegistro_DescartaORegistro() throws Exception {
+        Path wal = dir.resolve("history.wal");
+        try (MetricSampleJournal journal = new MetricSampleJournal(wal, false)) {
+            journal.append(samples(3));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(wal.toFile(), "rw")) {
+            long valueOffset = 2L * MetricSampleJournal.RECORD_BYTES + Long.BYTES * 3;
+            file.seek(valueOffset);
+            int original = file.read();
+            file.seek(valueOffset);
+            file.write(original ^ 0xFF);
+        }
+
+        try (MetricSampleJournal journal = new MetricSampleJournal(wal, false)) {
+            assertEquals(samples(2), journal.readAll());
+            assertEquals(2L * MetricSampleJournal.RECORD_BYTES, journal.size());
+        }
+    }
+
+    @Test
+    void testRead_EmPaginas_PercorreOArquivoSemRepetir() throws Exception {
+        try (MetricSampleJournal journal = new MetricSampleJournal(dir.resolve("history.wal"), false)) {
+            journal.append(samples(5));
+
+            List<MetricSample> all = new ArrayList<>();
+            long position = 0;
+            int pages = 0;
+            while (true) {
+                List<MetricSample> page = new ArrayList<>();
+                position = journal.read(position, 2, page);
+                if (page.isEmpty()) break;
+                assertEquals(pages < 2 ? 2 : 1, page.size());
+                all.addAll(page);
+                pages++;
+            }
+            assertEquals(3, pages);
+            assertEquals(samples(5), all);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.scheduler.CollectionPlan.HostPlan;
+import br.com.dti.msa.scheduler.CollectionPlan.ItemPlan;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollectionCadenceTest {
+
+    private static final long START = 1_700_000_000L;
+
+    private CollectionCadence cadence(boolean staggered) {
+        CollectionCadence cadence = new CollectionCadence(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cadence, "wheelSlots", 512);
+        ReflectionTestUtils.setField(cadence, "staggered", staggered);
+        ReflectionTestUtils.setField(cadence, "tickSeconds", 5);
+        ReflectionTestUtils.setField(cadence, "spreadWindowSeconds", 60);
+        return cadence;
+    }
+
+    private HostPlan host(long hostId) {
+        ItemPlan ping = new ItemPlan(1, "Ping", "agent.ping", 60, ValueParser.NUMBER, hostId + "|1");
+        return new HostPlan(hostId, hostId, "host-" + hostId, List.of(ping), Set.of("agent.ping"), false, null);
+    }
+
+    /**
+     * Ticks em que o host foi buscado, com ciclos a cada 5s entre 'from' e 'to'.
+     */
+    private List<Long> dispatchTicks(CollectionCadence cadence, List<HostPlan> hosts, long hostId, long from, long to) {
+        List<Long> ticks = new ArrayList<>();
+        for (long tick = from; tick <= to; tick += 5) {
+            if (cadence.dueKeys(hosts, tick).containsKey(hostId)) ticks.add(tick);
+        }
+        return ticks;
+    }
+
+    @Test
+    void testDueKeys_Escalonado_HostMantemODeslocamentoAEntreCiclos() {
+        List<HostPlan> hosts = List.of(host(42));
+        List<Long> first = dispatchTicks(cadence(true), hosts, 42, START, START + 300);
+        // Outra instância (ex: depois de reiniciar, ou em outro nó) chega ao mesmo segundo da janela
+        List<Long> restarted = dispatchTicks(cadence(true), hosts, 42, START + 7, START + 307);
+
+        assertEquals(5, first.size());
+        for (int i = 1; i < first.size(); i++) {
+            assertEquals(60, first.get(i) - first.get(i - 1));
+        }
+        long offset = Math.floorMod(ConsistentHashRing.mix(42), 60L);
+        for (long tick : first) {
+            // Buscado no ciclo que alcança o deslocamento (ciclo de 5s, antecipação de até 5s)
+            assertTrue(Math.floorMod(offset - tick, 60L) <= 5, "tick " + tick + " fora do deslocamento " + offset);
+        }
+        for (long tick : restarted) {
+            assertTrue(Math.floorMod(offset - tick, 60L) <= 5, "tick " + tick + " fora do deslocamento " + offset);
+        }
+    }
+
+    @Test
+    void testDueKeys_Escalonado_DepoisDeAtraso_RealinhaAoDeslocamento() {
+        CollectionCadence cadence = cadence(true);
+        List<HostPlan> hosts = List.of(host(7));
+        dispatchTicks(cadence, hosts, 7, START, START + 120);
+
+        // Coletor parado por mais de um intervalo: a série atrasada é buscada uma vez na volta
+        // e depois retorna ao mesmo segundo da janela
+        List<Long> afterGap = dispatchTicks(cadence, hosts, 7, START + 500, START + 700);
+        long offset = Math.floorMod(ConsistentHashRing.mix(7), 60L);
+        assertEquals(START + 500, afterGap.get(0));
+        List<Long> realigned = afterGap.subList(1, afterGap.size());
+        assertTrue(realigned.size() >= 3);
+        for (long tick : realigned) {
+            assertTrue(Math.floorMod(offset - tick, 60L) <= 5, "tick " + tick + " fora do deslocamento " + offset);
+        }
+    }
+
+    @Test
+    void testSpreadRatio_Escalonado_EspalhaAFrotaPelaJanela() {
+        List<HostPlan> fleet = new ArrayList<>();
+        for (long id = 1; id <= 600; id++) fleet.add(host(id));
+
+        CollectionCadence staggered = cadence(true);
+        CollectionCadence fixed = cadence(false);
+        for (long tick = START; tick < START + 180; tick += 5) {
+            staggered.dueKeys(fleet, tick);
+        }
+        for (long tick = START; tick < START + 180; tick += 60) {
+            fixed.dueKeys(fleet, tick);
+        }
+
+        // 600 hosts em 12 ciclos por janela: ~50 por ciclo, em vez dos 600 de uma vez
+        assertEquals(600, fixed.peakHostsPerCycle());
+        assertTrue(staggered.peakHostsPerCycle() < 100, "pico " + staggered.peakHostsPerCycle());
+        assertTrue(staggered.spreadRatio() > 0.6, "espalhamento " + staggered.spreadRatio());
+    }
+}
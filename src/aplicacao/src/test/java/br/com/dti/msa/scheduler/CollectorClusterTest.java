@@ -0,0 +1,99 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.repository.CollectorNodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CollectorClusterTest {
+
+    private final CollectorNodeRepository nodeRepository = mock(CollectorNodeRepository.class);
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private CollectorCluster cluster;
+
+    @BeforeEach
+    void setUp() {
+        cluster = new CollectorCluster();
+        ReflectionTestUtils.setField(cluster, "nodeRepository", nodeRepository);
+        ReflectionTestUtils.setField(cluster, "clusterEnabled", true);
+        ReflectionTestUtils.setField(cluster, "configuredNodeId", "node-a");
+        ReflectionTestUtils.setField(cluster, "leaseTtlSeconds", 30L);
+        ReflectionTestUtils.setField(cluster, "clock", (LongSupplier) now::get);
+    }
+
+    private long ownedHosts() {
+        return LongStream.rangeClosed(1, 1000).filter(id -> cluster.owns(id)).count();
+    }
+
+    @Test
+    void testOwns_AntesDoPrimeiroHeartbeat_NaoAssumeNada() {
+        assertEquals(0, ownedHosts());
+        assertFalse(cluster.isLeader());
+
+        // Heartbeat falhou: continua sem hosts
+        doThrow(new RuntimeException("Communications link failure")).when(nodeRepository).heartbeat(anyString());
+        cluster.heartbeat();
+        assertEquals(0, ownedHosts());
+        assertFalse(cluster.isLeader());
+    }
+
+    @Test
+    void testHeartbeat_DoisNosVivos_DivideOsHostsEOMenorIdLidera() {
+        when(nodeRepository.findLiveNodeIds(anyLong())).thenReturn(List.of("node-a", "node-b"));
+        cluster.heartbeat();
+
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a", "node-b"), 128);
+        for (long id = 1; id <= 1000; id++) {
+            assertEquals(ring.ownerOf(id).equals("node-a"), cluster.owns(id));
+        }
+        long owned = ownedHosts();
+        assertTrue(owned > 300 && owned < 700, "hosts " + owned);
+        assertTrue(cluster.isLeader());
+
+        // O outro nó saiu: este assume a frota inteira
+        when(nodeRepository.findLiveNodeIds(anyLong())).thenReturn(List.of("node-a"));
+        cluster.heartbeat();
+        assertEquals(1000, ownedHosts());
+    }
+
+    @Test
+    void testOwns_LeaseVencidoSemRenovacao_LargaOsHostsEALideranca() {
+        when(nodeRepository.findLiveNodeIds(anyLong())).thenReturn(List.of("node-a"));
+        cluster.heartbeat();
+        assertEquals(1000, ownedHosts());
+
+        // Banco fora do ar: mantém o anel enquanto o lease vale
+        doThrow(new RuntimeException("Communications link failure")).when(nodeRepository).heartbeat(anyString());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        cluster.heartbeat();
+        assertEquals(1000, ownedHosts());
+        assertTrue(cluster.isLeader());
+
+        // Lease vencido: os outros nós já redistribuíram os hosts deste
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, ownedHosts());
+        assertFalse(cluster.isLeader());
+    }
+
+    @Test
+    void testOwns_ClusterDesligado_AssumeTudo() {
+        ReflectionTestUtils.setField(cluster, "clusterEnabled", false);
+        assertEquals(1000, ownedHosts());
+        assertTrue(cluster.isLeader());
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.dti.msa.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    void testOwnerOf_MesmosNosEmOutraOrdem_MesmoDono() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("node-c", "node-a", "node-b"), 128);
+        for (long key = 1; key <= KEYS; key++) {
+            assertEquals(ring.ownerOf(key), reordered.ownerOf(key));
+        }
+        assertNull(new ConsistentHashRing(List.of(), 128).ownerOf(1));
+    }
+
+    @Test
+    void testOwnerOf_NoEntra_SoChavesParaONovoNoMudamDeDono() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-b", "node-c", "node-d"), 128);
+
+        int moved = 0;
+        for (long key = 1; key <= KEYS; key++) {
+            String owner = after.ownerOf(key);
+            if (!owner.equals(before.ownerOf(key))) {
+                assertEquals("node-d", owner);
+                moved++;
+            }
+        }
+        // O novo nó recebe por volta de 1/4 dos hosts
+        assertTrue(moved > KEYS * 0.15 && moved < KEYS * 0.35, "movidas " + moved);
+    }
+
+    @Test
+    void testOwnerOf_NoSai_SoAsChavesDeleMudamDeDono() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-c"), 128);
+
+        for (long key = 1; key <= KEYS; key++) {
+            String previous = before.ownerOf(key);
+            if (!previous.equals("node-b")) {
+                assertEquals(previous, after.ownerOf(key));
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.integration.zabbix.dto.ZabbixClient;
+import br.com.dti.msa.integration.zabbix.dto.ZabbixItemResponseDTO;
+import br.com.dti.msa.integration.zabbix.dto.ZabbixItemValues;
+import br.com.dti.msa.model.Host;
+import br.com.dti.msa.model.HostMetricConfig;
+import br.com.dti.msa.model.Metric;
+import br.com.dti.msa.model.ZabbixItemRef;
+import br.com.dti.msa.scheduler.CollectionPlan.HostPlan;
+import br.com.dti.msa.scheduler.MetricCollectorScheduler.StatusResult;
+import br.com.dti.msa.service.ZabbixItemResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FastRecheckLaneTest {
+
+    private static final String PING = "zabbix[host,agent,available]";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ZabbixClient zabbixClient = mock(ZabbixClient.class);
+    private final CollectedDataPersister persister = mock(CollectedDataPersister.class);
+    private final CollectorCluster cluster = mock(CollectorCluster.class);
+    // itemids pedidos ao Zabbix em cada passada
+    private final List<Set<String>> passes = new ArrayList<>();
+    private String pingValue = "0";
+    private HostStatusEvaluator evaluator;
+    private FastRecheckLane lane;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        Metric ping = new Metric();
+        ping.setMetricKey("disponibilidade-global");
+        Host host = new Host();
+        host.setMetricConfigs(Set.of(new HostMetricConfig(host, ping, PING)));
+        evaluator = HostStatusEvaluator.compile(host, StatusThresholds.DEFAULT);
+
+        // O itemid do ping de cada host é o Zabbix ID dele
+        ZabbixItemResolver itemResolver = mock(ZabbixItemResolver.class);
+        when(itemResolver.find(anyLong(), anyString())).thenAnswer(invocation ->
+                Optional.of(new ZabbixItemRef(invocation.getArgument(0), PING, invocation.getArgument(0), 3)));
+        when(zabbixClient.getItemValuesByIds(any())).thenAnswer(invocation -> {
+            Collection<String> itemIds = invocation.getArgument(0);
+            passes.add(new HashSet<>(itemIds));
+            Map<String, ZabbixItemResponseDTO> items = new HashMap<>();
+            for (String itemId : itemIds) {
+                ZabbixItemResponseDTO item = new ZabbixItemResponseDTO();
+                item.setItemId(itemId);
+                item.setKey(PING);
+                item.setLastValue(pingValue);
+                items.put(itemId, item);
+            }
+            return new ZabbixItemValues(items, Set.of());
+        });
+        when(cluster.owns(anyLong())).thenReturn(true);
+
+        lane = new FastRecheckLane(registry);
+        ReflectionTestUtils.setField(lane, "zabbixClient", zabbixClient);
+        ReflectionTestUtils.setField(lane, "itemResolver", itemResolver);
+        ReflectionTestUtils.setField(lane, "persister", persister);
+        ReflectionTestUtils.setField(lane, "cluster", cluster);
+        ReflectionTestUtils.setField(lane, "enabled", true);
+        ReflectionTestUtils.setField(lane, "maxHosts", 2);
+        ReflectionTestUtils.setField(lane, "recoveryChecks", 3);
+    }
+
+    private void observeDown(long hostId) {
+        HostPlan host = new HostPlan(hostId, hostId, "host-" + hostId, List.of(), Set.of(PING), false, evaluator);
+        lane.observe(host, Map.of(PING, "0"), new StatusResult(Host.HostStatus.INACTIVE, "Host parado! (Ping falhou)"));
+    }
+
+    private double watchedHosts() {
+        return registry.get("msa.collector.fastlane.hosts").gauge().value();
+    }
+
+    @Test
+    void testRecheck_MaisHostsQueOLimite_TodosSaoReavaliadosEmRodizio() {
+        for (long id = 1; id <= 5; id++) observeDown(id);
+
+        lane.recheck();
+        lane.recheck();
+        lane.recheck();
+
+        Set<String> rechecked = new HashSet<>();
+        passes.forEach(pass -> {
+            assertTrue(pass.size() <= 2);
+            rechecked.addAll(pass);
+        });
+        assertEquals(Set.of("1", "2", "3", "4", "5"), rechecked);
+
+        // Um novo ciclo principal não tira o lugar de quem ainda não foi reavaliado há mais tempo
+        observeDown(1);
+        observeDown(2);
+        lane.recheck();
+        assertFalse(passes.get(3).containsAll(Set.of("1", "2")), "passada " + passes.get(3));
+    }
+
+    @Test
+    void testRecheck_HostDeOutroNo_NaoGravaESaiDaVia() {
+        observeDown(1);
+        observeDown(2);
+        when(cluster.owns(2L)).thenReturn(false);
+        pingValue = "1"; // Os dois voltaram: seria uma mudança para ACTIVE
+
+        lane.recheck();
+
+        ArgumentCaptor<HostCollectionOutput> output = ArgumentCaptor.forClass(HostCollectionOutput.class);
+        verify(persister, times(1)).persistHost(output.capture());
+        assertEquals(1L, output.getValue().hostId);
+        assertEquals(Set.of("1"), passes.get(0));
+        assertEquals(1.0, watchedHosts());
+    }
+}
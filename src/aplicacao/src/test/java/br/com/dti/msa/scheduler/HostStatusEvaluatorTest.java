@@ -0,0 +1,85 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.model.Host;
+import br.com.dti.msa.model.HostMetricConfig;
+import br.com.dti.msa.model.Metric;
+import br.com.dti.msa.scheduler.MetricCollectorScheduler.StatusResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HostStatusEvaluatorTest {
+
+    private static Metric metric(String key) {
+        Metric metric = new Metric();
+        metric.setMetricKey(key);
+        return metric;
+    }
+
+    private static Host host() {
+        Host host = new Host();
+        host.setMetricConfigs(Set.of(
+            new HostMetricConfig(host, metric("disponibilidade-global-health"), "app.health"),
+            new HostMetricConfig(host, metric("cpu-uso"), "system.cpu.util"),
+            new HostMetricConfig(host, metric("memoria-ram-total"), "vm.memory.size[total]"),
+            new HostMetricConfig(host, metric("memoria-ram-disponivel"), "vm.memory.size[available]")));
+        return host;
+    }
+
+    @Test
+    void testEvaluate_MesmoAvaliadorEmVariosCiclos_ResultadosCorretos() {
+        // Compila uma vez, como o plano de coleta, e avalia ciclo após ciclo com valores que mudam
+        HostStatusEvaluator evaluator = HostStatusEvaluator.compile(host(), new StatusThresholds(80.0, 20.0));
+        int cycles = 30;
+        int[] counts = new int[Host.HostStatus.values().length];
+
+        for (int i = 0; i < cycles; i++) {
+            Map<String, String> values = new HashMap<>(8);
+            values.put("app.health", (i % 10 == 0) ? "{\"status\":\"DOWN\"}" : "{\"status\":\"UP\",\"deps\":{\"db\":\"UP\"}}");
+            values.put("system.cpu.util", (i % 10 == 1) ? "92.5" : "35");
+            values.put("vm.memory.size[total]", "1000");
+            values.put("vm.memory.size[available]", (i % 10 == 2) ? "100" : "600");
+
+            StatusResult result = evaluator.evaluate(new StatusInputs(values));
+            counts[result.status.ordinal()]++;
+        }
+
+        // 1 em 10 DOWN, 2 em 10 com CPU ou RAM acima do limite, o resto ACTIVE
+        assertEquals(cycles / 10, counts[Host.HostStatus.INACTIVE.ordinal()]);
+        assertEquals(cycles / 5, counts[Host.HostStatus.ALERT.ordinal()]);
+        assertEquals(cycles - cycles / 10 - cycles / 5, counts[Host.HostStatus.ACTIVE.ordinal()]);
+    }
+
+    @Test
+    void testEvaluate_OutraDependenciaFora_SoOBancoGeraAlerta() {
+        HostStatusEvaluator evaluator = HostStatusEvaluator.compile(host(), StatusThresholds.DEFAULT);
+        Map<String, String> values = new HashMap<>(Map.of(
+            "system.cpu.util", "10",
+            "vm.memory.size[total]", "1000",
+            "vm.memory.size[available]", "900"));
+
+        values.put("app.health", "{\"status\":\"UP\",\"deps\":{\"db\":\"UP\",\"cache\":\"DOWN\"}}");
+        assertEquals(Host.HostStatus.ACTIVE, evaluator.evaluate(new StatusInputs(values)).status);
+
+        values.put("app.health", "{\"status\":\"UP\",\"deps\":{\"db\":\"DOWN\"}}");
+        assertEquals(Host.HostStatus.ALERT, evaluator.evaluate(new StatusInputs(values)).status);
+    }
+
+    @Test
+    void testEvaluate_HostSemProblemas_ReaproveitaOResultadoConstante() {
+        HostStatusEvaluator evaluator = HostStatusEvaluator.compile(host(), StatusThresholds.DEFAULT);
+        Map<String, String> values = Map.of(
+            "app.health", "{\"status\":\"UP\"}",
+            "system.cpu.util", "10",
+            "vm.memory.size[total]", "1000",
+            "vm.memory.size[available]", "900");
+
+        // O caminho comum não aloca um StatusResult por avaliação
+        assertSame(evaluator.evaluate(new StatusInputs(values)), evaluator.evaluate(new StatusInputs(values)));
+    }
+}
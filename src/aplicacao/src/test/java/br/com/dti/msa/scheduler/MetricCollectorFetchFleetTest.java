@@ -0,0 +1,167 @@
+package br.com.dti.msa.scheduler;
+
+import br.com.dti.msa.integration.zabbix.ZabbixBulkhead;
+import br.com.dti.msa.integration.zabbix.ZabbixCircuitBreaker;
+import br.com.dti.msa.integration.zabbix.ZabbixHedging;
+import br.com.dti.msa.integration.zabbix.dto.ZabbixClient;
+import br.com.dti.msa.model.ZabbixItemRef;
+import br.com.dti.msa.repository.ZabbixItemRefRepository;
+import br.com.dti.msa.scheduler.CollectionPlan.HostPlan;
+import br.com.dti.msa.service.ZabbixItemResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fase de rede do coletor com o ZabbixClient real: só o transporte HTTP é falso.
+ */
+class MetricCollectorFetchFleetTest {
+
+    private static final String KEY = "system.cpu.util";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HttpClient httpClient = mock(HttpClient.class);
+    private final ZabbixItemRefRepository itemRefRepository = mock(ZabbixItemRefRepository.class);
+    // Corpos das requisições enviadas ao Zabbix
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    // Decide a resposta de cada requisição pelo corpo; null = falha de conexão
+    private Function<String, String> zabbix = body -> null;
+
+    private final HostPlan host1 = new HostPlan(1L, 10L, "host-1", List.of(), Set.of(KEY), false, null);
+    private final HostPlan host2 = new HostPlan(2L, 20L, "host-2", List.of(), Set.of(KEY), false, null);
+    private MetricCollectorScheduler scheduler;
+    private ZabbixClient client;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            String body = body(invocation.getArgument(0));
+            sent.add(body);
+            String answer = zabbix.apply(body);
+            if (answer == null) return CompletableFuture.failedFuture(new ConnectException("Connection refused"));
+            HttpResponse<InputStream> response = mock(HttpResponse.class);
+            when(response.statusCode()).thenReturn(200);
+            when(response.body()).thenReturn(new ByteArrayInputStream(answer.getBytes(StandardCharsets.UTF_8)));
+            return CompletableFuture.completedFuture(response);
+        });
+
+        client = new ZabbixClient();
+        ReflectionTestUtils.setField(client, "zabbixApiUrl", "http://zabbix.test/api_jsonrpc.php");
+        ReflectionTestUtils.setField(client, "authToken", "token");
+        ReflectionTestUtils.setField(client, "callTimeoutSeconds", 5L);
+        ReflectionTestUtils.setField(client, "itemChunkSize", 500);
+        ReflectionTestUtils.setField(client, "httpClient", httpClient);
+        ReflectionTestUtils.setField(client, "breaker", new ZabbixCircuitBreaker(registry, true, 20, 10, 50, 30, 3));
+        ReflectionTestUtils.setField(client, "bulkhead", new ZabbixBulkhead(registry, 32, 1000, false, 32, 32, 2.0, 0.9, 300));
+        ReflectionTestUtils.setField(client, "hedging", new ZabbixHedging(registry, false, 0.95, 0.05, 5, 50, 20));
+        ReflectionTestUtils.setField(client, "meterRegistry", registry);
+        ReflectionTestUtils.setField(client, "retryMaxAttempts", 1);
+
+        ZabbixItemResolver itemResolver = new ZabbixItemResolver();
+        ReflectionTestUtils.setField(itemResolver, "zabbixClient", client);
+        ReflectionTestUtils.setField(itemResolver, "itemRefRepository", itemRefRepository);
+        when(itemRefRepository.findAll()).thenReturn(List.of(
+                new ZabbixItemRef(10L, KEY, 100L, 0),
+                new ZabbixItemRef(20L, KEY, 200L, 0)));
+
+        scheduler = new MetricCollectorScheduler();
+        ReflectionTestUtils.setField(scheduler, "zabbixClient", client);
+        ReflectionTestUtils.setField(scheduler, "itemResolver", itemResolver);
+        ReflectionTestUtils.setField(scheduler, "maxInFlight", 1);
+        ReflectionTestUtils.setField(scheduler, "itemChunkSize", 500);
+        ReflectionTestUtils.setField(scheduler, "hostDeadlineSeconds", 15L);
+    }
+
+    private List<HostFetchResult> fetchFleet(HostPlan... hosts) {
+        Map<Long, Set<String>> dueKeys = new HashMap<>();
+        for (HostPlan host : hosts) dueKeys.put(host.hostId(), Set.of(KEY));
+        List<HostFetchResult> results = ReflectionTestUtils.invokeMethod(scheduler, "fetchFleet",
+                List.of(hosts), dueKeys, System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+        return results.stream().sorted(Comparator.comparingLong(r -> r.host.hostId())).toList();
+    }
+
+    private static String item(String itemId, String hostId) {
+        return "{\"jsonrpc\":\"2.0\",\"result\":[{\"itemid\":\"" + itemId + "\",\"hostid\":\"" + hostId + "\",\"key_\":\"" + KEY
+                + "\",\"lastvalue\":\"12.5\",\"lastclock\":\"1700000000\",\"lastns\":\"0\",\"value_type\":\"0\"}],\"id\":6}";
+    }
+
+    @Test
+    void testFetchFleet_ItemGetFalhou_HostsDesatualizadosSemNovaResolucao() {
+        List<HostFetchResult> results = fetchFleet(host1, host2);
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(r -> r.stale && r.itemsByKey.isEmpty()));
+        assertEquals("falha na consulta ao Zabbix", results.get(0).staleReason);
+        // Só o item.get do bloco: nenhuma resolução extra por host contra um Zabbix que já falha
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    void testFetchFleet_UmBlocoFalhou_SoOsHostsDeleFicamDesatualizados() {
+        ReflectionTestUtils.setField(client, "itemChunkSize", 1);
+        zabbix = body -> body.contains("\"100\"") ? item("100", "10") : null;
+
+        List<HostFetchResult> results = fetchFleet(host1, host2);
+
+        assertFalse(results.get(0).stale);
+        assertEquals("12.5", results.get(0).itemsByKey.get(KEY).getLastValue());
+        assertTrue(results.get(1).stale);
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void testFetchFleet_ResolucaoDoHostFalhou_HostDesatualizado() {
+        when(itemRefRepository.findAll()).thenReturn(List.of()); // Nada resolvido: item.get por chave
+
+        List<HostFetchResult> results = fetchFleet(host1);
+
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).stale);
+        assertEquals("falha na consulta ao Zabbix", results.get(0).staleReason);
+    }
+
+    // Lê o corpo JSON que o cliente montou para a requisição
+    private static String body(HttpRequest request) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override public void onSubscribe(Flow.Subscription subscription) { subscription.request(Long.MAX_VALUE); }
+            @Override public void onNext(ByteBuffer buffer) {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                out.writeBytes(bytes);
+            }
+            @Override public void onError(Throwable error) { }
+            @Override public void onComplete() { }
+        });
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
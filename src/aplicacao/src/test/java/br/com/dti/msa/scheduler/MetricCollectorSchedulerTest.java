@@ -7,6 +7,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.util.Map;
 import java.util.Set;
 
@@ -128,4 +130,81 @@ class MetricCollectorSchedulerTest {
         assertEquals(Host.HostStatus.ALERT, resultado.status);
         assertEquals("Host com alto consumo de CPU (95.5%)", resultado.description);
     }
-}
\ No newline at end of file
+
+    // Host com ping OK e a CPU informada, do tipo indicado
+    private Host hostComCpu(String type) {
+        Host host = new Host();
+        host.setType(type);
+        HostMetricConfig pingConfig = new HostMetricConfig(host, metricPing, "zabbix[host,agent,available]");
+        HostMetricConfig cpuConfig = new HostMetricConfig(host, metricCpu, "system.cpu.util");
+        host.setMetricConfigs(Set.of(pingConfig, cpuConfig));
+        return host;
+    }
+
+    // Limites vindos das propriedades 'msa.status.*', como na aplicação
+    private void usarLimites(MockEnvironment environment) {
+        CollectionPlanHolder planHolder = new CollectionPlanHolder();
+        ReflectionTestUtils.setField(planHolder, "environment", environment);
+        ReflectionTestUtils.setField(scheduler, "planHolder", planHolder);
+    }
+
+    @Test
+    void testDetermineHostStatus_LimiteDeCpuConfigurado_DeveRetornarAlert() {
+        // 1. ARRANGE: 85% fica abaixo do padrão (90%), mas acima do limite configurado
+        usarLimites(new MockEnvironment().withProperty("msa.status.cpu-max-percent", "80"));
+        Map<String, String> collectedItems = Map.of("zabbix[host,agent,available]", "1.0", "system.cpu.util", "85");
+
+        // 2. ACT
+        StatusResult resultado = scheduler.determineHostStatus(hostComCpu("web"), collectedItems);
+
+        // 3. ASSERT
+        assertEquals(Host.HostStatus.ALERT, resultado.status);
+        assertEquals("Host com alto consumo de CPU (85.0%)", resultado.description);
+    }
+
+    @Test
+    void testDetermineHostStatus_LimitePorTipoDeHost_SobrescreveOGlobal() {
+        // 1. ARRANGE: global 80%, mas hosts 'database' toleram até 97%
+        usarLimites(new MockEnvironment()
+            .withProperty("msa.status.cpu-max-percent", "80")
+            .withProperty("msa.status.database.cpu-max-percent", "97"));
+        Map<String, String> collectedItems = Map.of("zabbix[host,agent,available]", "1.0", "system.cpu.util", "95");
+
+        // 2. ACT
+        StatusResult banco = scheduler.determineHostStatus(hostComCpu("DATABASE"), collectedItems);
+        StatusResult web = scheduler.determineHostStatus(hostComCpu("web"), collectedItems);
+
+        // 3. ASSERT
+        assertEquals(Host.HostStatus.ACTIVE, banco.status);
+        assertEquals(Host.HostStatus.ALERT, web.status);
+    }
+
+    @Test
+    void testDetermineHostStatus_LimiteDeRamConfigurado_DeveRetornarAlert() {
+        // 1. ARRANGE: 15% livre passa no padrão (10%), mas não no limite de 20%
+        Metric ramTotal = new Metric();
+        ramTotal.setMetricKey("memoria-ram-total");
+        Metric ramDisponivel = new Metric();
+        ramDisponivel.setMetricKey("memoria-ram-disponivel");
+
+        Host host = new Host();
+        host.setMetricConfigs(Set.of(
+            new HostMetricConfig(host, metricPing, "zabbix[host,agent,available]"),
+            new HostMetricConfig(host, ramTotal, "vm.memory.size[total]"),
+            new HostMetricConfig(host, ramDisponivel, "vm.memory.size[available]")));
+        Map<String, String> collectedItems = Map.of(
+            "zabbix[host,agent,available]", "1.0",
+            "vm.memory.size[total]", "1000",
+            "vm.memory.size[available]", "150");
+
+        // 2. ACT
+        StatusResult padrao = scheduler.determineHostStatus(host, collectedItems);
+        usarLimites(new MockEnvironment().withProperty("msa.status.ram-min-free-percent", "20"));
+        StatusResult configurado = scheduler.determineHostStatus(host, collectedItems);
+
+        // 3. ASSERT
+        assertEquals(Host.HostStatus.ACTIVE, padrao.status);
+        assertEquals(Host.HostStatus.ALERT, configurado.status);
+        assertEquals("Host com alto consumo de RAM (15.0% livre)", configurado.description);
+    }
+}
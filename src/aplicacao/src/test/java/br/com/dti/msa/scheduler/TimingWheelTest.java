@@ -0,0 +1,58 @@
+package br.com.dti.msa.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private List<String> items(List<TimingWheel.Timeout<String>> expired) {
+        return expired.stream().map(TimingWheel.Timeout::item).sorted().toList();
+    }
+
+    @Test
+    void testAdvanceTo_DeveLiberarSomenteItensVencidos() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 0);
+        wheel.schedule("a", 2);
+        wheel.schedule("b", 5);
+
+        assertEquals(List.of("a"), items(wheel.advanceTo(3)));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("b"), items(wheel.advanceTo(5)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testAdvanceTo_ItemAlemDeUmaVolta_NaoVenceAntesDaHora() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 0);
+        wheel.schedule("lento", 20); // Mesmo slot do tick 4
+
+        assertTrue(wheel.advanceTo(4).isEmpty());
+        assertTrue(wheel.advanceTo(19).isEmpty());
+        assertEquals(List.of("lento"), items(wheel.advanceTo(20)));
+    }
+
+    @Test
+    void testAdvanceTo_SaltoMaiorQueARoda_LiberaTudoQueVenceu() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 0);
+        wheel.schedule("a", 3);
+        wheel.schedule("b", 30);
+        wheel.schedule("c", 100);
+
+        assertEquals(List.of("a", "b"), items(wheel.advanceTo(50)));
+        assertEquals(List.of("c"), items(wheel.advanceTo(100)));
+    }
+
+    @Test
+    void testSchedule_TickPassado_VenceNoProximoAvanco() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 10);
+        wheel.schedule("atrasado", 5);
+
+        List<TimingWheel.Timeout<String>> expired = wheel.advanceTo(11);
+        assertEquals(List.of("atrasado"), items(expired));
+        assertEquals(11, expired.get(0).dueTick());
+    }
+}